@@ -0,0 +1,273 @@
+package ticTacToe;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The q-values of the (state, cell) pairs of Tic-Tac-Toe, with one entry per
+ * canonical state (see {@link Game#canonical()}) and cell of the canonical
+ * game. All q-values start at 0.
+ *
+ * Subclasses store the q-values, and give access to them with the primitive
+ * methods {@link #get(int, int)} and {@link #set(int, int, double)}, which
+ * expect a canonical {@link StateIndex} id and cell. All the other methods
+ * use these two. The two methods taking a {@link Game} and a {@link Move}
+ * canonicalise them for you.
+ *
+ * @author ae187
+ *
+ */
+public abstract class AbstractQTable {
+
+	/**
+	 *
+	 * @param state a canonical {@link StateIndex} id
+	 * @param cell  a cell of the canonical game
+	 * @return the q-value of playing {@code cell} in {@code state}
+	 */
+	public abstract double get(int state, int cell);
+
+	/**
+	 * Sets the q-value of playing {@code cell} in {@code state}
+	 *
+	 * @param state a canonical {@link StateIndex} id
+	 * @param cell  a cell of the canonical game
+	 * @param v
+	 */
+	public abstract void set(int state, int cell, double v);
+
+	/**
+	 *
+	 * @param state a canonical {@link StateIndex} id
+	 * @return the highest q-value of the moves available in {@code state}, or 0
+	 *         if there are none (the state is terminal)
+	 */
+	public double maxQValue(int state) {
+		Game g = StateIndex.get().game(state);
+		if (g.isTerminal())
+			return 0.0;
+
+		double max = Double.NEGATIVE_INFINITY;
+		for (int empty = g.emptyCells(); empty != 0; empty &= empty - 1)
+			max = Math.max(max, get(state, Integer.numberOfTrailingZeros(empty)));
+
+		return max;
+	}
+
+	/**
+	 *
+	 * @param state a canonical {@link StateIndex} id of a non-terminal state
+	 * @return the available cell with the highest q-value in {@code state}; the
+	 *         lowest one if there are several
+	 */
+	public int bestCell(int state) {
+		int best = -1;
+		double max = Double.NEGATIVE_INFINITY;
+		for (int empty = StateIndex.get().game(state).emptyCells(); empty != 0; empty &= empty - 1) {
+			int cell = Integer.numberOfTrailingZeros(empty);
+			double q = get(state, cell);
+			if (q > max) {
+				max = q;
+				best = cell;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 *
+	 * @param g
+	 * @param m
+	 * @return the q value associated with the q-state {@code (g,m)}, where game
+	 *         is a {@link Game} object and m is a {@link Move} object}. Null if
+	 *         {@code m} is not a legal move by X in {@code g}.
+	 */
+	public Double getQValue(Game g, Move m) {
+		StateIndex index = StateIndex.get();
+		int id = index.id(g);
+		if (id < 0 || g.isTerminal() || g.whoseTurn.getName() != 'X' || !g.isLegal(m))
+			return null;
+
+		return get(index.canonicalId(id), Symmetry.cell(index.symmetry(id), m.getCell()));
+	}
+
+	/**
+	 * Adds the q-value mapping (g,m)->v to the q-table.
+	 *
+	 * @param g
+	 * @param m
+	 * @param v
+	 */
+	public void addQValue(Game g, Move m, Double v) {
+		StateIndex index = StateIndex.get();
+		int id = index.id(g);
+		if (id < 0)
+			throw new IllegalArgumentException("Not a valid game:" + g);
+
+		set(index.canonicalId(id), Symmetry.cell(index.symmetry(id), m.getCell()), v);
+	}
+
+	/**
+	 * A read-only view of this table in the nested map form it used to have:
+	 * from every canonical game where X can move, to the q-values of X's moves
+	 * in it. The view reads the q-values of the table when it is used, so it
+	 * sees later updates; it cannot be changed, and its methods that would
+	 * change it throw {@link UnsupportedOperationException}. Use
+	 * {@link #addQValue(Game, Move, Double)} to change q-values.
+	 *
+	 * @return the view
+	 */
+	public Map<Game, Map<Move, Double>> asMap() {
+		return new AbstractMap<Game, Map<Move, Double>>() {
+
+			private int size = -1;
+
+			@Override
+			public Map<Move, Double> get(Object key) {
+				int id = (key instanceof Game) ? StateIndex.get().id((Game) key) : -1;
+				return (isXToMove(id) && StateIndex.get().isCanonical(id)) ? moves(id) : null;
+			}
+
+			@Override
+			public boolean containsKey(Object key) {
+				return get(key) != null;
+			}
+
+			@Override
+			public Set<Entry<Game, Map<Move, Double>>> entrySet() {
+				return new AbstractSet<Entry<Game, Map<Move, Double>>>() {
+
+					@Override
+					public Iterator<Entry<Game, Map<Move, Double>>> iterator() {
+						return new Iterator<Entry<Game, Map<Move, Double>>>() {
+
+							int next = nextState(0);
+
+							@Override
+							public boolean hasNext() {
+								return next >= 0;
+							}
+
+							@Override
+							public Entry<Game, Map<Move, Double>> next() {
+								if (next < 0)
+									throw new NoSuchElementException();
+
+								int id = next;
+								next = nextState(id + 1);
+								return new SimpleImmutableEntry<Game, Map<Move, Double>>(StateIndex.get().game(id),
+										moves(id));
+							}
+						};
+					}
+
+					@Override
+					public int size() {
+						if (size < 0) {
+							int n = 0;
+							for (int id = nextState(0); id >= 0; id = nextState(id + 1))
+								n++;
+							size = n;
+						}
+						return size;
+					}
+				};
+			}
+		};
+	}
+
+	/**
+	 *
+	 * @param id a {@link StateIndex} id, or -1
+	 * @return true if {@code id} is a non-terminal state where X moves
+	 */
+	private static boolean isXToMove(int id) {
+		if (id < 0)
+			return false;
+
+		Game g = StateIndex.get().game(id);
+		return !g.isTerminal() && g.whoseTurn.getName() == 'X';
+	}
+
+	/**
+	 *
+	 * @param from a {@link StateIndex} id
+	 * @return the first canonical state where X moves with an id of at least
+	 *         {@code from}, or -1 if there is none
+	 */
+	private static int nextState(int from) {
+		StateIndex index = StateIndex.get();
+		for (int id = from; id < index.size(); id++)
+			if (index.isCanonical(id) && isXToMove(id))
+				return id;
+
+		return -1;
+	}
+
+	/**
+	 *
+	 * @param state a canonical {@link StateIndex} id where X moves
+	 * @return a read-only view of the q-values of X's moves in {@code state}
+	 */
+	private Map<Move, Double> moves(int state) {
+		int empty = StateIndex.get().game(state).emptyCells();
+		return new AbstractMap<Move, Double>() {
+
+			@Override
+			public Double get(Object key) {
+				if (!(key instanceof Move))
+					return null;
+
+				Move m = (Move) key;
+				int cell = m.getCell();
+				return (m.who.getName() == 'X' && (empty & (1 << cell)) != 0) ? AbstractQTable.this.get(state, cell)
+						: null;
+			}
+
+			@Override
+			public boolean containsKey(Object key) {
+				return get(key) != null;
+			}
+
+			@Override
+			public Set<Entry<Move, Double>> entrySet() {
+				return new AbstractSet<Entry<Move, Double>>() {
+
+					@Override
+					public Iterator<Entry<Move, Double>> iterator() {
+						return new Iterator<Entry<Move, Double>>() {
+
+							int left = empty;
+
+							@Override
+							public boolean hasNext() {
+								return left != 0;
+							}
+
+							@Override
+							public Entry<Move, Double> next() {
+								if (left == 0)
+									throw new NoSuchElementException();
+
+								int cell = Integer.numberOfTrailingZeros(left);
+								left &= left - 1;
+								return new SimpleImmutableEntry<Move, Double>(Move.of('X', cell),
+										AbstractQTable.this.get(state, cell));
+							}
+						};
+					}
+
+					@Override
+					public int size() {
+						return Integer.bitCount(empty);
+					}
+				};
+			}
+		};
+	}
+
+}
@@ -1,8 +1,24 @@
 package ticTacToe;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 public class Agent {
 	
+	/**
+	 * Is told how far {@link Agent#train()} has got, see {@link Agent#setProgressListener(ProgressListener)}
+	 */
+	public interface ProgressListener {
+		/**
+		 * Called from the training thread.
+		 * @param agent the agent being trained
+		 * @param done the iterations, rounds or episodes done so far
+		 * @param total the iterations, rounds or episodes the training will take at most, or -1 if that is not known
+		 */
+		void progress(Agent agent, long done, long total);
+	}
+	
 	/**
 	 * A Tic Tac Toe Policy
 	 */
@@ -10,6 +26,8 @@ public class Agent {
 	
 	protected char name; //'X' or 'O'
 	
+	private volatile ProgressListener progressListener;
+	
 	/**
 	 * Name of the agent ('X' or 'O') is set when the agent joins the game
 	 * @param p
@@ -57,10 +75,82 @@ public class Agent {
 		this.name=n;
 	}
 	
+	/**
+	 * Solves or learns the policy of this agent. Agents that do not learn their policy have nothing to do.
+	 */
+	public void train()
+	{
+	}
+	
+	/**
+	 * Sets who is told how far {@link #train()} has got; null (the default) for no one.
+	 * @param listener
+	 */
+	public void setProgressListener(ProgressListener listener)
+	{
+		this.progressListener=listener;
+	}
+	
+	/**
+	 * Tells the {@link ProgressListener}, if any, how far training has got.
+	 * @param done
+	 * @param total -1 if not known
+	 */
+	protected void reportProgress(long done, long total)
+	{
+		ProgressListener listener=progressListener;
+		if (listener!=null)
+			listener.progress(this, done, total);
+	}
+	
 	
+	/**
+	 * 
+	 * @return the parameters this agent's policy was solved with. Agents that solve or learn their policy override
+	 * this.
+	 */
+	public SolverParameters getParameters()
+	{
+		return new SolverParameters(getClass().getSimpleName(), 0, 0, 0, 0, 0);
+	}
+	
+	/**
+	 * 
+	 * @return the file the policy of this agent is stored in: {@code <class name>.pol} directly under the project folder
+	 */
+	public String getPolicyFile()
+	{
+		return getClass().getSimpleName()+".pol";
+	}
+	
+	/**
+	 * Loads the policy stored in {@link #getPolicyFile()}, if there is one and it was solved with the same parameters 
+	 * as this agent's (see {@link #getParameters()}).
+	 * @return the stored policy, or null if there is none
+	 * @throws UncheckedIOException if the file exists but cannot be read
+	 */
 	public Policy loadPolicyFromFile()
 	{
-		return null;
+		if (!new File(getPolicyFile()).isFile())
+			return null;
+		
+		try {
+			MappedPolicy stored=PolicyFile.load(getPolicyFile());
+			return stored.getParameters().equals(getParameters()) ? stored : null;
+		}
+		catch(IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Stores the policy of this agent in {@link #getPolicyFile()}, to be loaded with {@link #loadPolicyFromFile()}.
+	 * @throws IOException
+	 */
+	public void savePolicyToFile() throws IOException
+	{
+		PolicyFile.save(policy, getParameters(), getPolicyFile());
 	}
 	
 	
@@ -2,7 +2,6 @@ package ticTacToe;
 
 
 import java.util.List;
-import java.util.Random;
 /**
  * An agrgessive policy: if there is a winning move given a game state (Game object) then this policy finds it. Otherwise returns a
  * random available move.
@@ -34,9 +33,7 @@ public class AggressivePolicy extends Policy {
 				return m;
 		}
 		
-		Random r=new Random();
-		
-		return moves.get(r.nextInt(moves.size()));
+		return moves.get(random().nextInt(moves.size()));
 		
 	}
 
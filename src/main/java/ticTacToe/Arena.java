@@ -0,0 +1,354 @@
+package ticTacToe;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Plays many headless games between agents, on several threads: every X agent
+ * against every O agent, once with X starting and once with O starting (a
+ * {@link Match} each), counting wins and draws.
+ *
+ * Agents are not thread-safe (a game sets their name, and policies may keep
+ * state), so every worker thread makes its own agents with the suppliers
+ * given to {@link #addX} and {@link #addO}, once per run. Suppliers of
+ * solving agents should be cheap, e.g. {@code ValueIterationAgent::new} (see
+ * {@link SolvedModelCache}) or {@link QLearningAgent#newInstance()}.
+ *
+ * The games of a match are handed out to the workers in chunks of
+ * {@link #CHUNK}, and each worker adds its counts to the (striped)
+ * {@link LongAdder}s of the match once per chunk.
+ *
+ * @author ae187
+ *
+ */
+public final class Arena {
+
+	/**
+	 * The results of the games between two agents, with one of them starting
+	 */
+	public static final class Match {
+
+		/**
+		 * the names of the agents
+		 */
+		public final String x, o;
+
+		/**
+		 * who starts: 'X' or 'O'
+		 */
+		public final char first;
+
+		final int xIndex, oIndex;
+
+		final LongAdder xWins = new LongAdder();
+		final LongAdder oWins = new LongAdder();
+		final LongAdder draws = new LongAdder();
+
+		Match(String x, int xIndex, String o, int oIndex, char first) {
+			this.x = x;
+			this.xIndex = xIndex;
+			this.o = o;
+			this.oIndex = oIndex;
+			this.first = first;
+		}
+
+		public long getXWins() {
+			return xWins.sum();
+		}
+
+		public long getOWins() {
+			return oWins.sum();
+		}
+
+		public long getDraws() {
+			return draws.sum();
+		}
+
+		public long getGames() {
+			return getXWins() + getOWins() + getDraws();
+		}
+
+		@Override
+		public String toString() {
+			return x + " vs " + o + " (" + first + " first): X won " + getXWins() + ", O won " + getOWins() + ", draws "
+					+ getDraws();
+		}
+	}
+
+	/**
+	 * The results of {@link Arena#play(long)}
+	 */
+	public static final class Results {
+
+		private final List<Match> matches;
+
+		private final long nanos;
+
+		Results(List<Match> matches, long nanos) {
+			this.matches = Collections.unmodifiableList(matches);
+			this.nanos = nanos;
+		}
+
+		/**
+		 *
+		 * @return every match, by X agent, then O agent, then X first before O
+		 *         first
+		 */
+		public List<Match> getMatches() {
+			return matches;
+		}
+
+		/**
+		 *
+		 * @param x     the name of the X agent
+		 * @param o     the name of the O agent
+		 * @param first 'X' or 'O'
+		 * @return the match, or null if there is none
+		 */
+		public Match getMatch(String x, String o, char first) {
+			for (Match m : matches)
+				if (m.x.equals(x) && m.o.equals(o) && m.first == first)
+					return m;
+
+			return null;
+		}
+
+		/**
+		 *
+		 * @return the number of games played
+		 */
+		public long getGames() {
+			long games = 0;
+			for (Match m : matches)
+				games += m.getGames();
+
+			return games;
+		}
+
+		/**
+		 *
+		 * @return how long the games took, in seconds, including making the agents
+		 */
+		public double getSeconds() {
+			return nanos / 1e9;
+		}
+
+		public double getGamesPerSecond() {
+			return getGames() / Math.max(getSeconds(), 1e-9);
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder s = new StringBuilder();
+			for (Match m : matches)
+				s.append(m).append('\n');
+			s.append(String.format("%d games in %.2f s (%.0f games/s)", getGames(), getSeconds(), getGamesPerSecond()));
+			return s.toString();
+		}
+	}
+
+	/**
+	 * the number of games of a match handed to a worker at a time
+	 */
+	static final int CHUNK = 1024;
+
+	private final List<String> xNames = new ArrayList<String>();
+	private final List<Supplier<? extends Agent>> xAgents = new ArrayList<Supplier<? extends Agent>>();
+	private final List<String> oNames = new ArrayList<String>();
+	private final List<Supplier<? extends Agent>> oAgents = new ArrayList<Supplier<? extends Agent>>();
+
+	private final ExecutorService executor;
+
+	private final int workers;
+
+	/**
+	 * An arena that plays on {@code workers} threads of its own.
+	 *
+	 * @param workers
+	 */
+	public Arena(int workers) {
+		this(null, workers);
+	}
+
+	/**
+	 * An arena that plays with {@code workers} tasks on {@code executor}, e.g. a
+	 * thread pool or, on newer JDKs, a virtual thread per task executor. The
+	 * executor is not shut down.
+	 *
+	 * @param executor null for a thread pool of the arena's own
+	 * @param workers
+	 */
+	public Arena(ExecutorService executor, int workers) {
+		if (workers < 1)
+			throw new IllegalArgumentException("workers should be at least 1");
+
+		this.executor = executor;
+		this.workers = workers;
+	}
+
+	/**
+	 * Adds an agent that plays X.
+	 *
+	 * @param name  the name of the agent in the results
+	 * @param agent makes a new agent, on the worker thread
+	 * @return this arena
+	 */
+	public Arena addX(String name, Supplier<? extends Agent> agent) {
+		xNames.add(name);
+		xAgents.add(agent);
+		return this;
+	}
+
+	/**
+	 * Adds an agent that plays O.
+	 *
+	 * @param name  the name of the agent in the results
+	 * @param agent makes a new agent, on the worker thread
+	 * @return this arena
+	 */
+	public Arena addO(String name, Supplier<? extends Agent> agent) {
+		oNames.add(name);
+		oAgents.add(agent);
+		return this;
+	}
+
+	/**
+	 * Plays {@code games} games for every X agent, O agent, and starting side.
+	 *
+	 * @param games the number of games of every match
+	 * @return the results
+	 * @throws RuntimeException      if an agent could not be made, or made an
+	 *                               illegal move
+	 * @throws CancellationException if the calling thread was interrupted, in
+	 *                               which case the interrupt flag is set again,
+	 *                               or the workers were, so not all games were
+	 *                               played
+	 */
+	public Results play(long games) {
+		List<Match> matches = new ArrayList<Match>();
+		for (int x = 0; x < xNames.size(); x++)
+			for (int o = 0; o < oNames.size(); o++)
+				for (char first : new char[] { 'X', 'O' })
+					matches.add(new Match(xNames.get(x), x, oNames.get(o), o, first));
+
+		long chunks = (games + CHUNK - 1) / CHUNK;
+		AtomicLong next = new AtomicLong();
+		List<Worker> tasks = new ArrayList<Worker>();
+		for (int w = 0; w < workers; w++)
+			tasks.add(new Worker(matches, games, chunks, next));
+
+		ExecutorService pool = (executor != null) ? executor : Executors.newFixedThreadPool(workers);
+		long start = System.nanoTime();
+		try {
+			for (Future<Void> done : pool.invokeAll(tasks))
+				done.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			CancellationException cancelled = new CancellationException("Arena interrupted");
+			cancelled.initCause(e);
+			throw cancelled;
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Arena worker failed", e.getCause());
+		} finally {
+			if (pool != executor)
+				pool.shutdownNow(); // stops the workers if interrupted
+		}
+		Results results = new Results(matches, System.nanoTime() - start);
+		if (results.getGames() != games * matches.size())
+			throw new CancellationException("Arena workers interrupted"); // by the executor, e.g. on shutdownNow
+		return results;
+	}
+
+	/**
+	 * Takes chunks of games until there are none left or it is interrupted
+	 * (cancelled), and plays them with agents of its own, made when first needed.
+	 */
+	private class Worker implements Callable<Void> {
+
+		final List<Match> matches;
+		final long games;
+		final long chunks;
+		final AtomicLong next;
+
+		final Agent[] x = new Agent[xAgents.size()];
+		final Agent[] o = new Agent[oAgents.size()];
+
+		Worker(List<Match> matches, long games, long chunks, AtomicLong next) {
+			this.matches = matches;
+			this.games = games;
+			this.chunks = chunks;
+			this.next = next;
+		}
+
+		@Override
+		public Void call() throws IllegalMoveException {
+			long units = matches.size() * chunks;
+			for (long unit = next.getAndIncrement(); unit < units
+					&& !Thread.currentThread().isInterrupted(); unit = next.getAndIncrement()) {
+				Match match = matches.get((int) (unit / chunks));
+				long from = (unit % chunks) * CHUNK;
+				play(match, Math.min(CHUNK, games - from));
+			}
+			return null;
+		}
+
+		private void play(Match match, long n) throws IllegalMoveException {
+			if (x[match.xIndex] == null)
+				x[match.xIndex] = xAgents.get(match.xIndex).get();
+			if (o[match.oIndex] == null)
+				o[match.oIndex] = oAgents.get(match.oIndex).get();
+			Agent xAgent = x[match.xIndex];
+			Agent oAgent = o[match.oIndex];
+			Agent first = (match.first == 'X') ? xAgent : oAgent;
+
+			long xWins = 0, oWins = 0, draws = 0;
+			for (long i = 0; i < n; i++) {
+				int state = new Game(xAgent, oAgent, first).play();
+				if (state == Game.X_WON)
+					xWins++;
+				else if (state == Game.O_WON)
+					oWins++;
+				else
+					draws++;
+			}
+			match.xWins.add(xWins);
+			match.oWins.add(oWins);
+			match.draws.add(draws);
+		}
+	}
+
+	/**
+	 * Plays the solving and learning agents against the random, aggressive and
+	 * defensive agents, and prints the results.
+	 *
+	 * @param a the number of games of every match, 10000 if there is none; and
+	 *          the number of workers, the number of processors if there is none
+	 */
+	public static void main(String a[]) {
+		long games = a.length > 0 ? Long.parseLong(a[0]) : 10000;
+		int workers = a.length > 1 ? Integer.parseInt(a[1]) : Runtime.getRuntime().availableProcessors();
+
+		Arena arena = new Arena(workers);
+		arena.addX("vi", ValueIterationAgent::newInstance);
+		arena.addX("pi", PolicyIterationAgent::newInstance);
+		arena.addX("retro", RetrogradeAgent::new);
+		arena.addX("ql", QLearningAgent::newInstance);
+		arena.addX("random", RandomAgent::new);
+		arena.addO("random", RandomAgent::new);
+		arena.addO("agg", AggressiveAgent::new);
+		arena.addO("def", DefensiveAgent::new);
+
+		System.out.println(arena.play(games));
+	}
+
+}
@@ -0,0 +1,273 @@
+package ticTacToe;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * An agent that is trained in the background: {@link #train(Agent, Executor)}
+ * returns at once, and runs {@link Agent#train()} of an untrained agent (e.g.
+ * one made with {@link ValueIterationAgent#ValueIterationAgent(TTTMDP, double)})
+ * on an executor. {@link #ready()} completes with the trained agent, so several
+ * agents can be trained at the same time and used as soon as they are ready,
+ * e.g. with {@link CompletableFuture#anyOf(CompletableFuture...)}.
+ *
+ * An async agent can play before training has finished: {@link #getMove(Game)}
+ * and {@link #getPolicy()} wait for it. Training can be stopped with
+ * {@link #cancel()}.
+ *
+ * @author ae187
+ *
+ * @param <A> the type of the trained agent
+ */
+public final class AsyncAgent<A extends Agent> extends Agent {
+
+	/**
+	 * The executor of {@link AsyncAgent#train(Agent)}, made when first used
+	 */
+	private static final class Trainers {
+
+		/**
+		 * one daemon thread per processor, so that training does not keep the JVM
+		 * alive
+		 */
+		static final ExecutorService EXECUTOR = Executors
+				.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+					Thread t = new Thread(r, "AsyncAgent-trainer");
+					t.setDaemon(true);
+					return t;
+				});
+	}
+
+	private final A agent;
+
+	private final CompletableFuture<A> ready;
+
+	private volatile long done = 0;
+
+	private volatile long total = -1;
+
+	/**
+	 * the thread training the agent, null before and after training. Guarded by
+	 * this.
+	 */
+	private Thread trainer;
+
+	private AsyncAgent(A agent, Executor executor, ProgressListener listener) {
+		this.agent = agent;
+		agent.setProgressListener((a, done, total) -> {
+			this.done = done;
+			this.total = total;
+			if (listener != null)
+				listener.progress(a, done, total);
+		});
+		this.ready = new CompletableFuture<A>() {
+			@Override
+			public boolean cancel(boolean mayInterruptIfRunning) {
+				boolean cancelled = super.cancel(mayInterruptIfRunning);
+				if (cancelled)
+					interruptTrainer();
+				return cancelled;
+			}
+		};
+		executor.execute(this::run);
+	}
+
+	/**
+	 * Trains the agent, on the executor, and completes {@link #ready}.
+	 */
+	private void run() {
+		synchronized (this) {
+			if (ready.isDone())
+				return; // cancelled before it started
+			trainer = Thread.currentThread();
+		}
+		try {
+			agent.train();
+			ready.complete(agent);
+		} catch (Throwable e) {
+			ready.completeExceptionally(e);
+		} finally {
+			synchronized (this) {
+				trainer = null;
+				if (ready.isCancelled())
+					Thread.interrupted(); // the interrupt of cancel() is not for the next task of the thread
+			}
+		}
+	}
+
+	/**
+	 * Starts training {@code agent} on a thread pool dedicated to training, with
+	 * a (daemon) thread per processor. Training is long and CPU-bound, so it is
+	 * not run in the common {@link ForkJoinPool}, where it would hold up
+	 * unrelated {@link CompletableFuture}s and parallel streams. Trainings beyond
+	 * the number of processors wait for a thread.
+	 *
+	 * @param agent an agent that has not been trained yet
+	 * @return the agent being trained
+	 */
+	public static <A extends Agent> AsyncAgent<A> train(A agent) {
+		return train(agent, Trainers.EXECUTOR);
+	}
+
+	/**
+	 * Starts training {@code agent} on {@code executor}, e.g. one that is shut
+	 * down with the application.
+	 *
+	 * @param agent    an agent that has not been trained yet
+	 * @param executor
+	 * @return the agent being trained
+	 */
+	public static <A extends Agent> AsyncAgent<A> train(A agent, Executor executor) {
+		return train(agent, executor, null);
+	}
+
+	/**
+	 * Starts training {@code agent} on {@code executor}, telling
+	 * {@code listener} how far it has got. The listener replaces any listener of
+	 * {@code agent}, and is called from the training thread.
+	 *
+	 * @param agent    an agent that has not been trained yet
+	 * @param executor
+	 * @param listener null for none
+	 * @return the agent being trained
+	 */
+	public static <A extends Agent> AsyncAgent<A> train(A agent, Executor executor, ProgressListener listener) {
+		return new AsyncAgent<A>(agent, executor, listener);
+	}
+
+	/**
+	 *
+	 * @return the agent being trained, which should not be used before
+	 *         {@link #ready()} completes
+	 */
+	public A getAgent() {
+		return agent;
+	}
+
+	/**
+	 *
+	 * @return completes with the agent when it is trained, or exceptionally if
+	 *         training failed or was cancelled. Cancelling it is the same as
+	 *         {@link #cancel()}.
+	 */
+	public CompletableFuture<A> ready() {
+		return ready;
+	}
+
+	/**
+	 * Stops training: {@link #ready()} completes with a
+	 * {@link java.util.concurrent.CancellationException}, and the training thread
+	 * is interrupted. Agents that check for interrupts, like
+	 * {@link QLearningAgent}, stop training; others train to the end, but the
+	 * result is not used.
+	 *
+	 * @return true if training is cancelled, false if it had finished already
+	 */
+	public boolean cancel() {
+		return ready.cancel(true);
+	}
+
+	private synchronized void interruptTrainer() {
+		if (trainer != null)
+			trainer.interrupt();
+	}
+
+	/**
+	 *
+	 * @return true if training has finished, successfully or not
+	 */
+	public boolean isReady() {
+		return ready.isDone();
+	}
+
+	/**
+	 *
+	 * @return the iterations, rounds or episodes done so far
+	 */
+	public long getDone() {
+		return done;
+	}
+
+	/**
+	 *
+	 * @return the iterations, rounds or episodes the training will take at
+	 *         most, or -1 if that is not known (yet)
+	 */
+	public long getTotal() {
+		return total;
+	}
+
+	/**
+	 *
+	 * @return how far training has got, between 0 and 1: 1 when it has
+	 *         finished, and 0 until then if its length is not known
+	 */
+	public double getProgress() {
+		if (ready.isDone())
+			return 1;
+
+		long total = this.total;
+		return total > 0 ? Math.min(1, (double) done / total) : 0;
+	}
+
+	/**
+	 * Waits for training to finish.
+	 *
+	 * @throws java.util.concurrent.CompletionException if training failed
+	 */
+	@Override
+	public Move getMove(Game g) {
+		return ready.join().getMove(g);
+	}
+
+	/**
+	 * Waits for training to finish.
+	 *
+	 * @throws java.util.concurrent.CompletionException if training failed
+	 */
+	@Override
+	public Policy getPolicy() {
+		return ready.join().getPolicy();
+	}
+
+	/**
+	 * Waits for training to finish, so that it is not trained twice.
+	 */
+	@Override
+	public void train() {
+		ready.join();
+	}
+
+	/**
+	 * Waits for training to finish.
+	 */
+	@Override
+	public void savePolicyToFile() throws IOException {
+		ready.join().savePolicyToFile();
+	}
+
+	@Override
+	public char getName() {
+		return agent.getName();
+	}
+
+	@Override
+	public void setName(char n) {
+		agent.setName(n);
+	}
+
+	@Override
+	public SolverParameters getParameters() {
+		return agent.getParameters();
+	}
+
+	@Override
+	public String getPolicyFile() {
+		return agent.getPolicyFile();
+	}
+
+}
@@ -0,0 +1,56 @@
+package ticTacToe;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A q-table like {@link QTable} that several threads can read and update at the same time without locks, for
+ * Hogwild-style parallel Q-learning (see {@link QLearningAgent#setParallelism(int)}).
+ *
+ * Each q-value is stored as the bits of a double in an {@link AtomicLongArray}, so reads and writes of a single q-value
+ * are atomic and visible to the other threads. Updates are not compare-and-set: when two threads update the same
+ * q-value at the same time one of the updates can be lost, which Q-learning tolerates.
+ *
+ * @author ae187
+ *
+ */
+class AtomicQTable extends AbstractQTable {
+
+	/**
+	 * the q-values as double bits, indexed by 9*canonical state id+canonical cell
+	 */
+	private final AtomicLongArray bits;
+
+	/**
+	 * A table starting with the q-values of {@code table}
+	 * @param table
+	 */
+	AtomicQTable(QTable table)
+	{
+		bits=new AtomicLongArray(table.values.length);
+		for(int i=0;i<table.values.length;i++)
+			bits.lazySet(i, Double.doubleToRawLongBits(table.values[i]));
+	}
+
+	@Override
+	public double get(int state, int cell)
+	{
+		return Double.longBitsToDouble(bits.get(9*state+cell));
+	}
+
+	@Override
+	public void set(int state, int cell, double v)
+	{
+		bits.lazySet(9*state+cell, Double.doubleToRawLongBits(v));
+	}
+
+	/**
+	 * Copies the q-values of this table into {@code table}. Call it once no thread updates this table anymore.
+	 * @param table
+	 */
+	void copyTo(QTable table)
+	{
+		for(int i=0;i<bits.length();i++)
+			table.values[i]=Double.longBitsToDouble(bits.get(i));
+	}
+
+}
@@ -0,0 +1,252 @@
+package ticTacToe;
+
+import java.util.SplittableRandom;
+
+/**
+ * A vectorised version of {@link TTTEnvironment}: it holds {@link #size()}
+ * games at once, and {@link #step(int[])} plays one move of X in every game,
+ * followed by the opponent's reply. As in {@link TTTEnvironment}, the RL agent
+ * always plays 'X' and the opponent 'O' is part of the environment.
+ *
+ * The games are stored in primitive arrays (the cells of X and O as masks, see
+ * {@link Game}, and the base-3 code of the board), and states are given as
+ * {@link StateIndex} ids, so stepping allocates nothing. The results of the
+ * last step are left in the arrays returned by {@link #rewards()},
+ * {@link #nextStates()} and {@link #done()}, which are reused by every step. A
+ * game that ends is reset to the empty board straight away, so there is
+ * always a move to play in every game.
+ *
+ * The default opponent plays randomly and is simulated directly on the masks;
+ * any other opponent {@link Agent} is asked for its move on the (shared, read
+ * only) {@link StateIndex} game.
+ *
+ * @author ae187
+ *
+ */
+public final class BatchTTTEnvironment {
+
+	private double winReward = 10.0;
+	private double loseReward = -50.0;
+	private double livingReward = -1.00;
+	private double drawReward = 0.0;
+
+	/**
+	 * the opponent, null for the built-in random opponent
+	 */
+	private final Agent opponent;
+
+	/**
+	 * the random numbers of the random opponent, null to use those of the current
+	 * thread (see {@link RandomSource})
+	 */
+	private SplittableRandom random;
+
+	/**
+	 * game -> cells of X
+	 */
+	private final int[] xs;
+
+	/**
+	 * game -> cells of O
+	 */
+	private final int[] os;
+
+	/**
+	 * game -> base-3 code of the board (see {@link Game#hashCode()})
+	 */
+	private final int[] codes;
+
+	private final double[] rewards;
+	private final int[] nextStates;
+	private final boolean[] done;
+
+	/**
+	 * {@code size} games against an opponent that plays randomly, with the
+	 * default rewards of {@link TTTEnvironment}.
+	 *
+	 * @param size the number of games
+	 */
+	public BatchTTTEnvironment(int size) {
+		this(size, null);
+	}
+
+	/**
+	 *
+	 * @param size     the number of games
+	 * @param opponent the opponent; null or a {@link RandomAgent} for an opponent
+	 *                 that plays randomly. It is asked for moves on games where
+	 *                 it plays 'O', and is not changed otherwise (e.g. its name
+	 *                 is kept).
+	 */
+	public BatchTTTEnvironment(int size, Agent opponent) {
+		if (size < 1)
+			throw new IllegalArgumentException("size should be at least 1");
+
+		this.opponent = (opponent instanceof RandomAgent) ? null : opponent;
+
+		xs = new int[size];
+		os = new int[size];
+		codes = new int[size];
+		rewards = new double[size];
+		nextStates = new int[size];
+		done = new boolean[size];
+	}
+
+	public BatchTTTEnvironment(int size, Agent opponent, double winReward, double loseReward, double livingReward,
+			double drawReward) {
+		this(size, opponent);
+		this.winReward = winReward;
+		this.loseReward = loseReward;
+		this.livingReward = livingReward;
+		this.drawReward = drawReward;
+	}
+
+	/**
+	 * Gives the random opponent its own random numbers, e.g. to make a run
+	 * reproducible.
+	 *
+	 * @param random the generator, or null to use the current thread's
+	 */
+	public void setRandom(SplittableRandom random) {
+		this.random = random;
+	}
+
+	/**
+	 *
+	 * @return the number of games
+	 */
+	public int size() {
+		return xs.length;
+	}
+
+	/**
+	 * Resets all games to the empty board.
+	 */
+	public void reset() {
+		for (int i = 0; i < xs.length; i++)
+			reset(i);
+	}
+
+	private void reset(int i) {
+		xs[i] = 0;
+		os[i] = 0;
+		codes[i] = 0;
+	}
+
+	/**
+	 *
+	 * @param i a game
+	 * @return the {@link StateIndex} id of the current state of game {@code i},
+	 *         where it is X's turn
+	 */
+	public int state(int i) {
+		return StateIndex.get().idOfHash(codes[i] + 1);
+	}
+
+	/**
+	 *
+	 * @param i a game
+	 * @return the empty cells of game {@code i}, as a mask
+	 */
+	public int emptyCells(int i) {
+		return ~(xs[i] | os[i]) & Game.FULL;
+	}
+
+	/**
+	 * Plays {@code cells[i]} (3*x+y) for X in every game {@code i}, then the
+	 * opponent's move in the games that are not over. Afterwards, for every game
+	 * {@code i}, {@code rewards()[i]} is the reward received,
+	 * {@code nextStates()[i]} the {@link StateIndex} id of the state reached and
+	 * {@code done()[i]} whether that state is terminal, in which case the game has
+	 * been reset.
+	 *
+	 * @param cells X's move in each game
+	 * @throws IllegalMoveException if one of the cells is not empty, or the
+	 *                              opponent plays an illegal move. No game is
+	 *                              changed if X's moves are illegal.
+	 */
+	public void step(int[] cells) throws IllegalMoveException {
+		if (cells.length != xs.length)
+			throw new IllegalArgumentException("Expected " + xs.length + " moves, got " + cells.length);
+		for (int i = 0; i < cells.length; i++)
+			if (cells[i] < 0 || cells[i] > 8 || ((xs[i] | os[i]) & (1 << cells[i])) != 0)
+				throw new IllegalMoveException("Illegal Move: X in cell " + cells[i] + " of game " + i);
+
+		StateIndex index = StateIndex.get();
+		for (int i = 0; i < cells.length; i++) {
+			xs[i] |= 1 << cells[i];
+			codes[i] += Game.POW3[9 - cells[i]];
+
+			int state = Game.stateOf(xs[i], os[i]);
+			int turn = 2; // O's turn, unless O plays below
+			if (state == Game.ONGOING) {
+				int cell = opponentMove(index, i);
+				os[i] |= 1 << cell;
+				codes[i] += 2 * Game.POW3[9 - cell];
+
+				state = Game.stateOf(xs[i], os[i]);
+				turn = 1;
+			}
+
+			if (state == Game.X_WON)
+				rewards[i] = winReward;
+			else if (state == Game.O_WON)
+				rewards[i] = loseReward;
+			else if (state == Game.DRAW)
+				rewards[i] = drawReward;
+			else
+				rewards[i] = livingReward;
+
+			nextStates[i] = index.idOfHash(codes[i] + turn);
+			done[i] = (state != Game.ONGOING);
+			if (done[i])
+				reset(i);
+		}
+	}
+
+	private SplittableRandom random() {
+		return random != null ? random : RandomSource.current();
+	}
+
+	/**
+	 *
+	 * @return the cell the opponent plays in game {@code i}, where it is O's turn
+	 */
+	private int opponentMove(StateIndex index, int i) throws IllegalMoveException {
+		int empty = ~(xs[i] | os[i]) & Game.FULL;
+		if (opponent == null)
+			return Game.nthCell(empty, random().nextInt(Integer.bitCount(empty)));
+
+		Move m = opponent.getMove(index.game(index.idOfHash(codes[i] + 2)));
+		if (m == null || (empty & (1 << m.getCell())) == 0)
+			throw new IllegalMoveException("Illegal Move:" + m + " in game " + i);
+
+		return m.getCell();
+	}
+
+	/**
+	 *
+	 * @return game -> the reward received in the last step
+	 */
+	public double[] rewards() {
+		return rewards;
+	}
+
+	/**
+	 *
+	 * @return game -> the {@link StateIndex} id of the state reached in the last
+	 *         step, before any reset
+	 */
+	public int[] nextStates() {
+		return nextStates;
+	}
+
+	/**
+	 *
+	 * @return game -> whether the last step ended the game
+	 */
+	public boolean[] done() {
+		return done;
+	}
+
+}
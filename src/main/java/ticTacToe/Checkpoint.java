@@ -0,0 +1,217 @@
+package ticTacToe;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A checkpoint of a value table: the state values of a
+ * {@link ValueIterationAgent} or {@link PolicyIterationAgent}, or the q-values
+ * of a {@link QLearningAgent}, with the parameters they were trained with and
+ * how far training got, so that training can be resumed or warm-started later.
+ * The file format is:
+ *
+ * <pre>
+ * int      magic ('TTTC')
+ * int      format version
+ * int      kind of table ({@link Kind} ordinal)
+ * int      number of values
+ * ...      the {@link SolverParameters} ({@link SolverParameters#BYTES} bytes)
+ * long     progress: iterations, rounds or episodes done
+ * double   the last Bellman residual, or NaN
+ * ...      padding up to {@link #HEADER_BYTES}
+ * double[] the values, in the order of the agent's array
+ * </pre>
+ *
+ * All numbers are big-endian. {@link #save} writes the file with one gathering
+ * {@link FileChannel} write (to a temporary file first, so an existing
+ * checkpoint is only replaced by a complete one), and {@link #load} maps it
+ * into memory.
+ *
+ * @author ae187
+ *
+ */
+public final class Checkpoint {
+
+	/**
+	 * What the values are
+	 */
+	public enum Kind {
+		/**
+		 * state values indexed by {@link StateIndex} id
+		 */
+		STATE_VALUES,
+		/**
+		 * q-values of a {@link QTable}
+		 */
+		Q_VALUES
+	}
+
+	static final int MAGIC = 0x54545443;
+
+	static final int VERSION = 1;
+
+	/**
+	 * the offset of the values in the file, a multiple of 8
+	 */
+	static final int HEADER_BYTES = 120;
+
+	private final Kind kind;
+	private final SolverParameters parameters;
+	private final long progress;
+	private final double residual;
+	private final DoubleBuffer values;
+
+	private Checkpoint(Kind kind, SolverParameters parameters, long progress, double residual, DoubleBuffer values) {
+		this.kind = kind;
+		this.parameters = parameters;
+		this.progress = progress;
+		this.residual = residual;
+		this.values = values;
+	}
+
+	/**
+	 * Writes a checkpoint to {@code file}, replacing it if it exists.
+	 *
+	 * @param file
+	 * @param kind       what the values are
+	 * @param parameters the parameters of the training
+	 * @param progress   the iterations, rounds or episodes done so far
+	 * @param residual   the last Bellman residual, NaN if there is none
+	 * @param values
+	 * @throws IOException
+	 */
+	public static void save(String file, Kind kind, SolverParameters parameters, long progress, double residual,
+			double[] values) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+		header.putInt(MAGIC).putInt(VERSION).putInt(kind.ordinal()).putInt(values.length);
+		parameters.write(header);
+		header.putLong(progress).putDouble(residual);
+		header.clear();
+
+		ByteBuffer body = ByteBuffer.allocate(values.length * Double.BYTES);
+		body.asDoubleBuffer().put(values);
+
+		Path target = Paths.get(file);
+		Path tmp = Paths.get(file + ".tmp");
+		try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer[] buffers = { header, body };
+			while (header.hasRemaining() || body.hasRemaining())
+				channel.write(buffers);
+		}
+		Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * Maps the checkpoint in {@code file} into memory.
+	 *
+	 * @param file
+	 * @return the checkpoint
+	 * @throws IOException if the file cannot be read or is not a checkpoint
+	 */
+	public static Checkpoint load(String file) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+			return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), file);
+		}
+	}
+
+	/**
+	 * Reads a checkpoint from the contents of a checkpoint file, e.g. a resource
+	 * read into memory.
+	 *
+	 * @param buffer the whole file
+	 * @param name   the name of the file, for error messages
+	 * @return the checkpoint, backed by {@code buffer}
+	 * @throws IOException if {@code buffer} is not a checkpoint
+	 */
+	static Checkpoint read(ByteBuffer buffer, String name) throws IOException {
+		if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC)
+			throw new IOException("Not a checkpoint: " + name);
+		int version = buffer.getInt();
+		if (version != VERSION)
+			throw new IOException("Unsupported checkpoint version " + version + ": " + name);
+		int kind = buffer.getInt();
+		int length = buffer.getInt();
+		if (kind < 0 || kind >= Kind.values().length || length < 0
+				|| buffer.capacity() != HEADER_BYTES + (long) length * Double.BYTES)
+			throw new IOException("Corrupt checkpoint: " + name);
+
+		SolverParameters parameters = SolverParameters.read(buffer);
+		long progress = buffer.getLong();
+		double residual = buffer.getDouble();
+
+		buffer.position(HEADER_BYTES);
+		return new Checkpoint(Kind.values()[kind], parameters, progress, residual, buffer.slice().asDoubleBuffer());
+	}
+
+	/**
+	 * An in-memory checkpoint of a copy of {@code values}
+	 *
+	 * @see #save(String, Kind, SolverParameters, long, double, double[])
+	 */
+	static Checkpoint of(Kind kind, SolverParameters parameters, long progress, double residual, double[] values) {
+		return new Checkpoint(kind, parameters, progress, residual,
+				DoubleBuffer.wrap(values.clone()).asReadOnlyBuffer());
+	}
+
+	public Kind getKind() {
+		return kind;
+	}
+
+	/**
+	 *
+	 * @return the parameters of the training
+	 */
+	public SolverParameters getParameters() {
+		return parameters;
+	}
+
+	/**
+	 *
+	 * @return the iterations, rounds or episodes done when the checkpoint was
+	 *         saved
+	 */
+	public long getProgress() {
+		return progress;
+	}
+
+	/**
+	 *
+	 * @return the last Bellman residual, NaN if there is none
+	 */
+	public double getResidual() {
+		return residual;
+	}
+
+	/**
+	 *
+	 * @return the number of values
+	 */
+	public int size() {
+		return values.limit();
+	}
+
+	/**
+	 * Copies the values into {@code target}.
+	 *
+	 * @param kind   the kind of values expected
+	 * @param target an array of {@link #size()} values
+	 * @throws IllegalArgumentException if the checkpoint holds another kind or
+	 *                                  number of values
+	 */
+	public void copyTo(Kind kind, double[] target) {
+		if (kind != this.kind || target.length != size())
+			throw new IllegalArgumentException(
+					"Checkpoint of " + size() + " " + this.kind + ", expected " + target.length + " " + kind);
+
+		values.duplicate().get(target);
+	}
+
+}
@@ -0,0 +1,268 @@
+package ticTacToe;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The whole transition model of a {@link TTTMDP}, generated once with
+ * {@link TTTMDP#generateTransitions} and stored in flat primitive arrays
+ * (compressed sparse rows), so that planners (e.g. {@link ValueIterationAgent}
+ * and {@link PolicyIterationAgent}) can do Bellman backups without generating
+ * or allocating anything. Get one with {@link TTTMDP#compile()}.
+ *
+ * The model has one row per decision state: every canonical (see
+ * {@link Game#canonical()}), non-terminal game where it is X's turn. Rows are
+ * ordered by decreasing number of pieces on the board, so every transition
+ * goes from a row to a state that is further up (or terminal).
+ *
+ * The actions of row {@code r} are numbered {@link #firstAction(int)} up to
+ * (excluding) {@link #endAction(int)}, and the transitions of action
+ * {@code a} are numbered {@link #firstTransition(int)} up to (excluding)
+ * {@link #endTransition(int)}. Transition {@code k} leads to the canonical
+ * state {@link #next(int)} (a {@link StateIndex} id) with probability
+ * {@link #prob(int)} and reward {@link #reward(int)}.
+ *
+ * @author ae187
+ *
+ */
+public final class CompiledTTTMDP {
+
+	/**
+	 * row -> state id
+	 */
+	private final int[] states;
+
+	/**
+	 * state id -> row, or -1 if the state is not a decision state
+	 */
+	private final int[] rows;
+
+	/**
+	 * row -> its first action; the last entry is the number of actions
+	 */
+	private final int[] actionStart;
+
+	/**
+	 * action -> the cell X plays, in the frame of the row's (canonical) game
+	 */
+	private final byte[] cells;
+
+	/**
+	 * action -> its first transition; the last entry is the number of transitions
+	 */
+	private final int[] transitionStart;
+
+	/**
+	 * transition -> canonical id of the target state
+	 */
+	private final int[] next;
+
+	/**
+	 * transition -> probability
+	 */
+	private final double[] prob;
+
+	/**
+	 * transition -> reward
+	 */
+	private final double[] reward;
+
+	CompiledTTTMDP(TTTMDP mdp) {
+		StateIndex index = StateIndex.get();
+
+		int[] states = new int[index.size()];
+		int numRows = 0;
+		for (int pieces = 8; pieces >= 0; pieces--)
+			for (int id = 0; id < index.size(); id++) {
+				Game g = index.game(id);
+				if (index.isCanonical(id) && !g.isTerminal() && g.whoseTurn.getName() == 'X'
+						&& Integer.bitCount(g.xs | g.os) == pieces)
+					states[numRows++] = id;
+			}
+		this.states = Arrays.copyOf(states, numRows);
+
+		this.rows = new int[index.size()];
+		Arrays.fill(rows, -1);
+		this.actionStart = new int[numRows + 1];
+
+		byte[] cells = new byte[9 * numRows];
+		int[] transitionStart = new int[9 * numRows + 1];
+		int[] next = new int[16 * numRows];
+		double[] prob = new double[next.length];
+		double[] reward = new double[next.length];
+		int numActions = 0;
+		int numTransitions = 0;
+
+		for (int r = 0; r < numRows; r++) {
+			Game g = index.game(this.states[r]);
+			rows[this.states[r]] = r;
+			actionStart[r] = numActions;
+
+			for (Move m : g.getPossibleMoves()) {
+				List<TransitionProb> transitions = mdp.generateTransitions(g, m);
+				if (numTransitions + transitions.size() > next.length) {
+					next = Arrays.copyOf(next, 2 * next.length);
+					prob = Arrays.copyOf(prob, next.length);
+					reward = Arrays.copyOf(reward, next.length);
+				}
+
+				cells[numActions] = (byte) m.getCell();
+				transitionStart[numActions] = numTransitions;
+				for (TransitionProb t : transitions) {
+					next[numTransitions] = index.canonicalId(index.id(t.outcome.sPrime));
+					prob[numTransitions] = t.prob;
+					reward[numTransitions] = t.outcome.localReward;
+					numTransitions++;
+				}
+				numActions++;
+			}
+		}
+		actionStart[numRows] = numActions;
+		transitionStart[numActions] = numTransitions;
+
+		this.cells = Arrays.copyOf(cells, numActions);
+		this.transitionStart = Arrays.copyOf(transitionStart, numActions + 1);
+		this.next = Arrays.copyOf(next, numTransitions);
+		this.prob = Arrays.copyOf(prob, numTransitions);
+		this.reward = Arrays.copyOf(reward, numTransitions);
+	}
+
+	/**
+	 *
+	 * @return the number of rows (decision states)
+	 */
+	public int numRows() {
+		return states.length;
+	}
+
+	/**
+	 *
+	 * @param row
+	 * @return the {@link StateIndex} id of the state of {@code row}
+	 */
+	public int state(int row) {
+		return states[row];
+	}
+
+	/**
+	 *
+	 * @param id a {@link StateIndex} id
+	 * @return the row of the state with this id, or -1 if it is not a decision
+	 *         state (it is terminal, not canonical or it is O's turn)
+	 */
+	public int row(int id) {
+		return rows[id];
+	}
+
+	public int firstAction(int row) {
+		return actionStart[row];
+	}
+
+	public int endAction(int row) {
+		return actionStart[row + 1];
+	}
+
+	/**
+	 *
+	 * @param row
+	 * @param cell
+	 * @return the action of {@code row} where X plays {@code cell}, or -1 if the
+	 *         cell is not empty
+	 */
+	public int action(int row, int cell) {
+		for (int a = actionStart[row]; a < actionStart[row + 1]; a++)
+			if (cells[a] == cell)
+				return a;
+
+		return -1;
+	}
+
+	/**
+	 *
+	 * @param action
+	 * @return the cell (3*x+y) X plays in {@code action}
+	 */
+	public int cell(int action) {
+		return cells[action];
+	}
+
+	public int firstTransition(int action) {
+		return transitionStart[action];
+	}
+
+	public int endTransition(int action) {
+		return transitionStart[action + 1];
+	}
+
+	/**
+	 *
+	 * @param transition
+	 * @return the canonical {@link StateIndex} id of the target state
+	 */
+	public int next(int transition) {
+		return next[transition];
+	}
+
+	public double prob(int transition) {
+		return prob[transition];
+	}
+
+	public double reward(int transition) {
+		return reward[transition];
+	}
+
+	/**
+	 * The Bellman backup of one action: the expected reward plus discounted value
+	 * of the next state.
+	 *
+	 * @param action
+	 * @param values   state values indexed by {@link StateIndex} id
+	 * @param discount
+	 * @return the q-value of {@code action} according to {@code values}
+	 */
+	public double qValue(int action, double[] values, double discount) {
+		double q = 0;
+		for (int t = transitionStart[action]; t < transitionStart[action + 1]; t++)
+			q += prob[t] * (reward[t] + discount * values[next[t]]);
+
+		return q;
+	}
+
+	/**
+	 *
+	 * @param row
+	 * @param values   state values indexed by {@link StateIndex} id
+	 * @param discount
+	 * @return the action of {@code row} with the highest q-value according to
+	 *         {@code values}; the first one if there are several
+	 */
+	public int bestAction(int row, double[] values, double discount) {
+		int best = -1;
+		double bestQ = Double.NEGATIVE_INFINITY;
+		for (int a = actionStart[row]; a < actionStart[row + 1]; a++) {
+			double q = qValue(a, values, discount);
+			if (q > bestQ) {
+				bestQ = q;
+				best = a;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 *
+	 * @param row
+	 * @param values   state values indexed by {@link StateIndex} id
+	 * @param discount
+	 * @return the highest q-value of the actions of {@code row} according to
+	 *         {@code values}
+	 */
+	public double maxQValue(int row, double[] values, double discount) {
+		double best = Double.NEGATIVE_INFINITY;
+		for (int a = actionStart[row]; a < actionStart[row + 1]; a++)
+			best = Math.max(best, qValue(a, values, discount));
+
+		return best;
+	}
+
+}
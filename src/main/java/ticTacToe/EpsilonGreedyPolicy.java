@@ -1,13 +1,162 @@
 package ticTacToe;
 
 /**
- * to do for next year
+ * An epsilon-greedy policy over the q-values of a q-table (see {@link AbstractQTable}), for X: with probability epsilon it plays a random
+ * move (exploration), otherwise the move with the highest q-value (exploitation). It is the policy a
+ * {@link QLearningAgent} follows while training.
+ *
+ * Epsilon can stay constant, or decay with the number of episodes played (see {@link #endEpisode()}) from its initial
+ * value down to a final value, either linearly or exponentially.
+ *
+ * Choosing a move allocates nothing: the greedy move is found by scanning the q-values of the empty cells of the
+ * (canonical) state.
  * @author ae187
  *
  */
 public class EpsilonGreedyPolicy extends Policy {
-	
-	
-	
+
+	/**
+	 * How epsilon changes as episodes are played.
+	 */
+	public enum Decay {
+		/**
+		 * epsilon stays at its initial value
+		 */
+		CONSTANT,
+		/**
+		 * epsilon goes down by the same amount every episode, reaching its final value after the decay episodes
+		 */
+		LINEAR,
+		/**
+		 * epsilon is multiplied by the same factor every episode, reaching its final value after the decay episodes
+		 */
+		EXPONENTIAL
+	}
+
+	/**
+	 * the q-values to be greedy about
+	 */
+	AbstractQTable table;
+
+	double initialEpsilon;
+
+	double finalEpsilon;
+
+	Decay decay;
+
+	/**
+	 * the number of episodes epsilon takes to decay to {@link #finalEpsilon}
+	 */
+	int decayEpisodes;
+
+	/**
+	 * the number of episodes played so far
+	 */
+	int episodes=0;
+
+	/**
+	 * A policy with a constant epsilon
+	 * @param table
+	 * @param epsilon
+	 */
+	public EpsilonGreedyPolicy(AbstractQTable table, double epsilon)
+	{
+		this(table, epsilon, epsilon, Decay.CONSTANT, 1);
+	}
+
+	/**
+	 *
+	 * @param table the q-values
+	 * @param initialEpsilon epsilon at the start
+	 * @param finalEpsilon epsilon after {@code decayEpisodes} episodes and from then on. Must be positive for
+	 * exponential decay.
+	 * @param decay
+	 * @param decayEpisodes
+	 */
+	public EpsilonGreedyPolicy(AbstractQTable table, double initialEpsilon, double finalEpsilon, Decay decay, int decayEpisodes)
+	{
+		if (initialEpsilon < 0 || initialEpsilon > 1 || finalEpsilon < 0 || finalEpsilon > 1)
+			throw new IllegalArgumentException("epsilon should be between 0 and 1");
+		if (decay == Decay.EXPONENTIAL && (initialEpsilon == 0 || finalEpsilon == 0))
+			throw new IllegalArgumentException("exponential decay needs a positive epsilon");
+		if (decayEpisodes < 1)
+			throw new IllegalArgumentException("decayEpisodes should be at least 1");
+
+		this.table=table;
+		this.initialEpsilon=initialEpsilon;
+		this.finalEpsilon=finalEpsilon;
+		this.decay=decay;
+		this.decayEpisodes=decayEpisodes;
+	}
+
+	/**
+	 *
+	 * @return the current value of epsilon
+	 */
+	public double getEpsilon()
+	{
+		if (decay == Decay.CONSTANT)
+			return initialEpsilon;
+		if (episodes >= decayEpisodes)
+			return finalEpsilon;
+
+		double progress=(double) episodes / decayEpisodes;
+		if (decay == Decay.LINEAR)
+			return initialEpsilon + (finalEpsilon - initialEpsilon) * progress;
+
+		return initialEpsilon * Math.pow(finalEpsilon / initialEpsilon, progress);
+	}
+
+	/**
+	 * Tells the policy an episode is over, so that epsilon decays.
+	 */
+	public void endEpisode()
+	{
+		episodes++;
+	}
+
+	/**
+	 *
+	 * @param g a non-terminal game where it is X's turn
+	 * @return the cell X plays in {@code g}
+	 */
+	public int selectCell(Game g)
+	{
+		return selectCell(StateIndex.get().id(g), g.emptyCells());
+	}
+
+	/**
+	 *
+	 * @param id the {@link StateIndex} id of a non-terminal game where it is X's turn
+	 * @param empty the empty cells of that game
+	 * @return the cell X plays in the game
+	 */
+	public int selectCell(int id, int empty)
+	{
+		if (random().nextDouble() < getEpsilon())
+			return Game.nthCell(empty, random().nextInt(Integer.bitCount(empty)));
+
+		return greedyCell(id);
+	}
+
+	/**
+	 *
+	 * @param id the {@link StateIndex} id of a non-terminal game where it is X's turn
+	 * @return the cell with the highest q-value in that game
+	 */
+	public int greedyCell(int id)
+	{
+		StateIndex index=StateIndex.get();
+		int symmetry=index.symmetry(id);
+
+		// the table is in the frame of the canonical game
+		return Symmetry.cell(Symmetry.inverse(symmetry), table.bestCell(index.canonicalId(id)));
+	}
+
+	@Override
+	public Move getMove(Game g)
+	{
+		return Move.of('X', selectCell(g));
+	}
 
 }
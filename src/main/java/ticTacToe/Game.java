@@ -2,6 +2,7 @@ package ticTacToe;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -36,7 +37,54 @@ public class Game {
 	 */
 	int state = 0;
 
-	char[][] board = new char[3][3];
+	/**
+	 * The board, packed into two 9-bit masks: bit {@code 3*i+j} of {@code xs} is
+	 * set iff cell (i,j) holds an 'X', and likewise for {@code os} and 'O'. Whose
+	 * turn it is, the remaining bit of the state, is given by {@link #whoseTurn}.
+	 */
+	int xs;
+	int os;
+
+	/**
+	 * The board part of {@link #hashCode()}: the base 3 number with one digit per
+	 * cell (' ' is 0, 'X' is 1, 'O' is 2), cell 0 being the most significant, and
+	 * a trailing 0 digit left for whose turn it is. Updated with a single
+	 * multiply-add on every move.
+	 */
+	int code;
+
+	/**
+	 * Powers of three, {@code POW3[k] = 3^k}.
+	 */
+	static final int[] POW3 = { 1, 3, 9, 27, 81, 243, 729, 2187, 6561, 19683 };
+
+	/**
+	 * Mask with all nine cells set.
+	 */
+	static final int FULL = 0b111111111;
+
+	/**
+	 * The eight winning lines as cell masks: rows, columns, then the two
+	 * diagonals. This is also the order in which lines are checked by
+	 * {@link #evaluateGameState()}.
+	 */
+	static final int[] LINES = { 0b000000111, 0b000111000, 0b111000000, 0b001001001, 0b010010010, 0b100100100,
+			0b100010001, 0b001010100 };
+
+	/**
+	 * For every 9-bit mask, the index in {@link #LINES} of the first line it
+	 * completes, or {@code LINES.length} if it completes none.
+	 */
+	private static final byte[] FIRST_LINE = new byte[FULL + 1];
+
+	static {
+		for (int mask = 0; mask <= FULL; mask++) {
+			int l = 0;
+			while (l < LINES.length && (mask & LINES[l]) != LINES[l])
+				l++;
+			FIRST_LINE[mask] = (byte) l;
+		}
+	}
 
 	/**
 	 * the X agent
@@ -111,25 +159,52 @@ public class Game {
 	 * 
 	 */
 	public Game(Game g) {
+		copyFrom(g);
+
+	}
+
+	/**
+	 * Makes this game a copy of {@code g}, in place.
+	 * 
+	 * @param g
+	 */
+	void copyFrom(Game g) {
 		this.x = g.x;
 		this.o = g.o;
 		this.whoseTurn = g.whoseTurn;
 		// WARNING: Currently Agents are not deep copied
 
-		for (int i = 0; i < 3; i++)
-			for (int j = 0; j < 3; j++)
-				this.board[i][j] = g.board[i][j];
-
+		this.xs = g.xs;
+		this.os = g.os;
+		this.code = g.code;
+		this.state = g.state;
 	}
 
 	public void initBoard() {
-		// fill the board with e's (empty cells)
-		for (int i = 0; i < 3; i++)
-			for (int j = 0; j < 3; j++)
-				board[i][j] = ' ';
+		// all cells empty
+		xs = 0;
+		os = 0;
+		code = 0;
 
 	}
 
+	/**
+	 * Starts this game again, in place: empty board, ongoing, and X's turn. The
+	 * agents are kept.
+	 */
+	void reset() {
+		initBoard();
+		state = ONGOING;
+		whoseTurn = x;
+	}
+
+	/**
+	 * @return the bit representing cell (x,y) in the board masks
+	 */
+	static int bit(int x, int y) {
+		return 1 << (3 * x + y);
+	}
+
 	public boolean isLegal(Move m) {
 		if (m.x < 0 || m.x > 2 || m.y < 0 || m.y > 2)
 			return false;
@@ -138,7 +213,7 @@ public class Game {
 			return false;
 		}
 
-		if (board[m.x][m.y] != ' ')
+		if (((xs | os) & bit(m.x, m.y)) != 0)
 			return false;
 
 		return true;
@@ -152,20 +227,16 @@ public class Game {
 	 */
 	public List<Game> getAllSuccessorGames() {
 		List<Game> result = new ArrayList<Game>();
-		for (int i = 0; i < 3; i++)
-			for (int j = 0; j < 3; j++) {
-				if (board[i][j] == ' ') {
-					Game newGame = null;
-					try {
-						newGame = this.simulateMove(whoseTurn.getName(), i, j);
-					} catch (IllegalMoveException e) {
-						System.out.println(e.getMessage());
-						e.printStackTrace();
-					}
-					// System.out.println("Adding:\n"+newGame);
-					result.add(newGame);
-				}
-			}
+		char who = whoseTurn.getName();
+		int empty = emptyCells();
+		while (empty != 0) {
+			int cell = Integer.numberOfTrailingZeros(empty);
+			empty &= empty - 1;
+
+			Game newGame = clone();
+			newGame.place(who, cell);
+			result.add(newGame);
+		}
 
 		return result;
 
@@ -176,51 +247,61 @@ public class Game {
 	 * or O's turn as specified by {@code xo} argument. NOTE: this method will
 	 * include ALL terminal states in the game.
 	 * 
+	 * The games are copied from the shared {@link StateIndex}, so callers are free
+	 * to modify them.
+	 * 
 	 * @param xo specifies whose turn it should be in the resulting games.
 	 * @return
 	 */
 	public static List<Game> generateAllValidGames(char xo) {
 		List<Game> result = new ArrayList<Game>();
-		// this is the number of possible game hashes (2222222222 in base 3): 59048 -
-		// not all are valid. Here we only return the valid ones.
-		for (int i = 0; i < 59048; i++) {
-			Game g = inverseHash(i);
-			if (g == null)
-				continue;
-
-			if (g.isValid()) {
-				// System.out.println("for:"+i);
-				// System.out.println("got:\n"+g);
-				// System.out.println("turn:"+g.whoseTurn.getName());
-				// System.out.println("--------");
-				g.evaluateGameState();
-				if (g.whoseTurn.getName() == xo || g.isTerminal())
-					result.add(g);
-			}
-
+		StateIndex index = StateIndex.get();
+		for (int id = 0; id < index.size(); id++) {
+			Game g = index.game(id);
+			if (g.whoseTurn.getName() == xo || g.isTerminal())
+				result.add(g.clone());
 		}
 
 		return result;
 	}
 
+	/**
+	 * MOVE_LISTS[0][mask] lists the moves by X into the empty cells given by
+	 * {@code mask}, MOVE_LISTS[1][mask] those by O. These are the lists returned by
+	 * {@link #getPossibleMoves()}, shared and unmodifiable.
+	 */
+	private static final List<Move>[][] MOVE_LISTS = moveLists();
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static List<Move>[][] moveLists() {
+		List<Move>[][] lists = new List[2][FULL + 1];
+		char[] who = { 'X', 'O' };
+		for (int side = 0; side < 2; side++)
+			for (int mask = 0; mask <= FULL; mask++) {
+				List<Move> moves = new ArrayList<Move>(Integer.bitCount(mask));
+				for (int cell = 0; cell < 9; cell++)
+					if ((mask & (1 << cell)) != 0)
+						moves.add(Move.of(who[side], cell));
+
+				lists[side][mask] = Collections.unmodifiableList(moves);
+			}
+
+		return lists;
+	}
+
 	/**
 	 * returns a list of all available moves by the agent whose turn it is.
 	 * 
+	 * The list is shared and cannot be modified; copy it first if you need to.
+	 * 
 	 * @return
 	 */
 	public List<Move> getPossibleMoves() {
-		List<Move> possibleMoves = new ArrayList<Move>();
 		// if it's not our turn then no moves possible.
 		if (getState() != ONGOING)
-			return possibleMoves;
-
-		for (int i = 0; i < 3; i++)
-			for (int j = 0; j < 3; j++) {
-				if (getBoard()[i][j] == ' ')
-					possibleMoves.add(new Move(whoseTurn, i, j));
-			}
+			return Collections.emptyList();
 
-		return possibleMoves;
+		return MOVE_LISTS[whoseTurn.getName() == 'X' ? 0 : 1][emptyCells()];
 
 	}
 
@@ -228,34 +309,103 @@ public class Game {
 	 * returns a list of all available moves by the agent whose turn it is NOT. Used
 	 * by the defensive agent.
 	 * 
+	 * The list is shared and cannot be modified; copy it first if you need to.
+	 * 
 	 * @return
 	 */
 	public List<Move> getPossibleMovesByOpponent() {
-		List<Move> possibleMoves = new ArrayList<Move>();
 		// if it's not our turn then no moves possible.
 		if (getState() != ONGOING)
-			return possibleMoves;
+			return Collections.emptyList();
 
-		for (int i = 0; i < 3; i++)
-			for (int j = 0; j < 3; j++) {
-				if (getBoard()[i][j] == ' ')
-					possibleMoves.add(new Move((whoseTurn.getName() == 'X') ? 'O' : 'X', i, j));
-			}
+		return MOVE_LISTS[whoseTurn.getName() == 'X' ? 1 : 0][emptyCells()];
+
+	}
 
-		return possibleMoves;
+	/**
+	 * The allocation free way to go through the available moves: the returned mask
+	 * has bit {@code 3*x+y} set iff cell (x,y) is empty, e.g.
+	 * 
+	 * <pre>
+	 * for (int empty = g.emptyCells(); empty != 0; empty &amp;= empty - 1) {
+	 * 	Move m = Move.of(who, Integer.numberOfTrailingZeros(empty));
+	 * 	...
+	 * }
+	 * </pre>
+	 * 
+	 * Unlike {@link #getPossibleMoves()}, this does not check whether the game is
+	 * over.
+	 * 
+	 * @return the mask of empty cells
+	 */
+	public int emptyCells() {
+		return ~(xs | os) & FULL;
+	}
 
+	/**
+	 * 
+	 * @param mask a 9-bit cell mask
+	 * @param n    between 0 (inclusive) and the number of cells in {@code mask}
+	 *             (exclusive)
+	 * @return the n'th lowest cell in {@code mask}, e.g. to pick a random empty
+	 *         cell
+	 */
+	public static int nthCell(int mask, int n) {
+		for (int i = 0; i < n; i++)
+			mask &= mask - 1;
+
+		return Integer.numberOfTrailingZeros(mask);
 	}
 
+	/**
+	 * 
+	 * @return a snapshot of the board as a 3x3 array of 'X', 'O' and ' ' (empty)
+	 *         cells. Changing the returned array does not change the game.
+	 */
 	public char[][] getBoard() {
+		char[][] board = new char[3][3];
+		for (int i = 0; i < 3; i++)
+			for (int j = 0; j < 3; j++)
+				board[i][j] = getCell(i, j);
+
 		return board;
 	}
 
+	/**
+	 * 
+	 * @return the content of cell (x,y): 'X', 'O' or ' ' if it is empty
+	 */
+	public char getCell(int x, int y) {
+		int b = bit(x, y);
+		if ((xs & b) != 0)
+			return 'X';
+		else if ((os & b) != 0)
+			return 'O';
+
+		return ' ';
+	}
+
+	/**
+	 * Tells us whether putting {@code who}'s mark in the empty cell (x,y) would
+	 * complete a line for {@code who}. Used by the defensive agent to spot the
+	 * opponent's winning moves.
+	 * 
+	 * @param who either 'X' or 'O'
+	 * @param x
+	 * @param y
+	 * @return
+	 */
+	public boolean completesLine(char who, int x, int y) {
+		int mask = (who == 'X' ? xs : os) | bit(x, y);
+		return FIRST_LINE[mask] < LINES.length;
+	}
+
 	public String toString() {
 		String result = "\n";
 		for (int i = 0; i < 3; i++) {
 			result += "|";
 			for (int j = 0; j < 3; j++) {
-				result += board[i][j] + "|";
+				result += getCell(i, j) + "|";
 
 			}
 			result += "\n";
@@ -274,113 +424,31 @@ public class Game {
 	 */
 	public int evaluateGameState() {
 
-		// checking columns
-		if (board[0][0] != ' ' && board[0][0] == board[0][1] && board[0][1] == board[0][2]) {
-			if (board[0][0] == 'X')
-				this.state = X_WON;
-			else
-				this.state = O_WON;
-
-			return this.state;
-
-		}
-		if (board[1][0] != ' ' && board[1][0] == board[1][1] && board[1][1] == board[1][2]) {
-			if (board[1][0] == 'X')
-				this.state = X_WON;
-			else
-				this.state = O_WON;
-
-			return this.state;
-
-		}
-		if (board[2][0] != ' ' && board[2][0] == board[2][1] && board[2][1] == board[2][2]) {
-			if (board[2][0] == 'X')
-				this.state = X_WON;
-			else
-				this.state = O_WON;
-
-			return this.state;
-
-		}
-
-		// checking rows
-
-		if (board[0][0] != ' ' && board[0][0] == board[1][0] && board[1][0] == board[2][0]) {
-			if (board[0][0] == 'X')
-				this.state = X_WON;
-			else
-				this.state = O_WON;
-
-			return this.state;
-
-		}
-		if (board[0][1] != ' ' && board[0][1] == board[1][1] && board[1][1] == board[2][1]) {
-			if (board[0][1] == 'X')
-				this.state = X_WON;
-			else
-				this.state = O_WON;
-
-			return this.state;
-
-		}
-		if (board[0][2] != ' ' && board[0][2] == board[1][2] && board[1][2] == board[2][2]) {
-			if (board[0][2] == 'X')
-				this.state = X_WON;
-			else
-				this.state = O_WON;
-
-			return this.state;
-
-		}
-
-		// checking diagnols
-
-		if (board[0][0] != ' ' && board[0][0] == board[1][1] && board[1][1] == board[2][2]) {
-			if (board[0][0] == 'X')
-				this.state = X_WON;
-			else
-				this.state = O_WON;
-
-			return this.state;
-
-		}
-
-		if (board[2][0] != ' ' && board[2][0] == board[1][1] && board[1][1] == board[0][2]) {
-			if (board[2][0] == 'X')
-				this.state = X_WON;
-			else
-				this.state = O_WON;
-
-			return this.state;
-
-		}
-
-		boolean spacesLeft = false;
-		for (int i = 0; i < 3; i++)
-			for (int j = 0; j < 3; j++) {
-				if (board[i][j] == ' ') {
-					spacesLeft = true;
-					break;
-
-				}
-			}
-
-		if (spacesLeft)
-			this.state = ONGOING;
-		else
-			this.state = DRAW;
-
+		this.state = stateOf(xs, os);
 		return this.state;
 
 	}
 
-	private int count(char xo) {
-		int count = 0;
-		for (int i = 0; i < 3; i++)
-			for (int j = 0; j < 3; j++)
-				if (board[i][j] == xo)
-					count++;
-		return count;
+	/**
+	 * 
+	 * @param xs the cells of X, as a mask
+	 * @param os the cells of O, as a mask
+	 * @return the state of the board, one of DRAW, ONGOING, X_WIN or O_WIN
+	 */
+	static int stateOf(int xs, int os) {
+		// compare the first line completed by each player. At most one of them has
+		// one in a game reachable by play.
+		int xLine = FIRST_LINE[xs];
+		int oLine = FIRST_LINE[os];
+
+		if (xLine < oLine)
+			return X_WON;
+		else if (oLine < xLine)
+			return O_WON;
+		else if ((xs | os) == FULL)
+			return DRAW;
+		else
+			return ONGOING;
 	}
 
 	/**
@@ -389,8 +457,8 @@ public class Game {
 	 * @return
 	 */
 	public boolean isValid() {
-		int xs = count('X');
-		int os = count('O');
+		int xs = Integer.bitCount(this.xs);
+		int os = Integer.bitCount(this.os);
 		if (Math.abs(xs - os) > 1)
 			return false;
 
@@ -413,7 +481,7 @@ public class Game {
 	 * @return
 	 */
 	public Game simulateMove(char who, int x, int y) throws IllegalMoveException {
-		Move m = new Move(who, x, y);
+		Move m = Move.of(who, x, y);
 		return simulateMove(m);
 
 	}
@@ -432,24 +500,38 @@ public class Game {
 		if (whoseTurn == o && m.who.getName() != 'O')
 			throw new IllegalMoveException("it is not o's turn");
 
-		if (board[m.x][m.y] != ' ')
+		if (((xs | os) & bit(m.x, m.y)) != 0)
 			throw new IllegalMoveException("Invalid move. The square is " + m);
 
 		Game copy = clone();
-		copy.board[m.x][m.y] = m.who.getName();
-		if (m.who.getName() == 'X')
-			copy.whoseTurn = copy.o;
-		else if (m.who.getName() == 'O')
-			copy.whoseTurn = copy.x;
-		else
-			throw new IllegalArgumentException();
-
-		copy.evaluateGameState();
+		copy.place(m.who.getName(), 3 * m.x + m.y);
 
 		return copy;
 
 	}
 
+	/**
+	 * Puts {@code who}'s mark in {@code cell} (3*x+y), hands the turn to the other
+	 * agent and re-evaluates the game. No legality checks are made.
+	 * 
+	 * @param who  either 'X' or 'O'
+	 * @param cell
+	 */
+	void place(char who, int cell) {
+		if (who == 'X') {
+			xs |= 1 << cell;
+			code += POW3[9 - cell];
+			whoseTurn = o;
+		} else if (who == 'O') {
+			os |= 1 << cell;
+			code += 2 * POW3[9 - cell];
+			whoseTurn = x;
+		} else
+			throw new IllegalArgumentException();
+
+		evaluateGameState();
+	}
+
 	/**
 	 * Executes the move m. This will change the game.
 	 * 
@@ -462,18 +544,10 @@ public class Game {
 		if (whoseTurn == o && m.who.getName() != 'O')
 			throw new IllegalMoveException("it is not X's turn");
 
-		if (board[m.x][m.y] != ' ')
+		if (((xs | os) & bit(m.x, m.y)) != 0)
 			throw new IllegalMoveException("Invalid move. The location (" + m.x + "," + m.y + ") is not empty");
 
-		board[m.x][m.y] = m.who.getName();
-		if (whoseTurn.getName() == 'X')
-			whoseTurn = o;
-		else if (m.who.getName() == 'O')
-			whoseTurn = x;
-		else
-			throw new IllegalArgumentException();
-
-		this.evaluateGameState();
+		place(m.who.getName(), 3 * m.x + m.y);
 
 	}
 
@@ -486,7 +560,7 @@ public class Game {
 	 * @param y   the y coordinate of the move (between 0 and 2 inclusive)
 	 */
 	public void executeMove(char who, int x, int y) throws IllegalMoveException {
-		Move m = new Move(who, x, y);
+		Move m = Move.of(who, x, y);
 		executeMove(m);
 
 	}
@@ -530,6 +604,19 @@ public class Game {
 
 	}
 
+	/**
+	 * Plays the game to the end like {@link #playOut()}, but without printing
+	 * anything, e.g. to play many games (see {@link Arena}).
+	 * 
+	 * @return the final state: {@link #X_WON}, {@link #O_WON} or {@link #DRAW}
+	 */
+	public int play() throws IllegalMoveException {
+		while (this.state == ONGOING)
+			executeMove(this.whoseTurn.getMove(this));
+
+		return this.state;
+	}
+
 	/**
 	 * Deep copy
 	 */
@@ -555,27 +642,9 @@ public class Game {
 		// ' ' ->0
 		// 'X' ->1
 		// 'O' ->2
-		String s = "";
-		for (int i = 0; i < 3; i++)
-			for (int j = 0; j < 3; j++) {
-				switch (board[i][j]) {
-				case 'X':
-					s += "1";
-					break;
-				case 'O':
-					s += "2";
-					break;
-				case ' ':
-					s += "0";
-					break;
-				}
-
-			}
-		// also encode whose turn it is. Either 1 or 2 (x or o)
-
-		s += (whoseTurn == x) ? "1" : "2";
-
-		return Integer.parseInt(s, 3);
+		// the board digits are kept up to date in code by place(); the last digit
+		// encodes whose turn it is. Either 1 or 2 (x or o)
+		return code + ((whoseTurn == x) ? 1 : 2);
 
 	}
 
@@ -587,52 +656,94 @@ public class Game {
 	 * You can use this method to read your policy or value functions from file.
 	 * 
 	 * @param hash
-	 * @return the Game corresponding to the hash
+	 * @return the Game corresponding to the hash, or null if {@code hash} does not
+	 *         encode whose turn it is
 	 */
 	public static Game inverseHash(int hash) {
 
-		Game g = new Game();
-
-		String s1 = Integer.toString(hash, 3);
-
-		if (s1.charAt(s1.length() - 1) == '0')
+		if (hash < 0 || hash >= 3 * POW3[9])
 			return null;
 
-		// add leading 0's
-		String s = new String(s1);
+		int turn = hash % 3;
+		if (turn == 0)
+			return null;
 
-		for (int i = 0; i < 10 - s1.length(); i++) {
-			s = "0" + s;
-		}
-		// System.out.println("Intermediate string:"+s);
+		Game g = new Game();
 		// set whose turn
-		if (s.charAt(s.length() - 1) == '1')
-			g.whoseTurn = g.x;
-		else if (s.charAt(s.length() - 1) == '2')
+		if (turn == 2)
 			g.whoseTurn = g.o;
 
-		for (int l = s.length() - 2; l >= 0; l--) {
-			int i = (int) l / 3;
-			int j = (int) l % 3;
-			switch (s.charAt(l)) {
-			case '0':
-				g.board[i][j] = ' ';
-				break;
-			case '1':
-				g.board[i][j] = 'X';
-				break;
-			case '2':
-				g.board[i][j] = 'O';
-				break;
-			default:
-				throw new IllegalStateException("this shouldn't happen!");
-
-			}
+		// peel off the board digits, least significant (cell 8) first
+		int digits = hash / 3;
+		for (int cell = 8; cell >= 0; cell--) {
+			int digit = digits % 3;
+			digits /= 3;
+			if (digit == 1)
+				g.xs |= 1 << cell;
+			else if (digit == 2)
+				g.os |= 1 << cell;
 		}
+		g.code = hash - turn;
 
 		return g;
 	}
 
+	/**
+	 * 
+	 * @return the index of the {@link Symmetry} that takes this game to its
+	 *         canonical form, see {@link #canonical()}
+	 */
+	public int symmetry() {
+		StateIndex index = StateIndex.get();
+		int id = index.id(this);
+		if (id >= 0)
+			return index.symmetry(id);
+
+		return Symmetry.canonicalising(xs, os);
+	}
+
+	/**
+	 * Of the (up to) 8 games that are symmetric to this one, the canonical one is
+	 * the one with the smallest hash code. Symmetric games have the same value, so
+	 * value functions, policies etc. only need to store canonical games. A move
+	 * {@code m} stored for the canonical game is the move
+	 * {@code m.transform(Symmetry.inverse(symmetry()))} in this game.
+	 * 
+	 * @return the canonical form of this game. If this game is valid, this is the
+	 *         shared game from the {@link StateIndex}, which must not be modified.
+	 */
+	public Game canonical() {
+		StateIndex index = StateIndex.get();
+		int id = index.id(this);
+		if (id >= 0)
+			return index.game(index.canonicalId(id));
+
+		return transform(symmetry());
+	}
+
+	/**
+	 * 
+	 * @return the hash code of the canonical form of this game, see
+	 *         {@link #canonical()}
+	 */
+	public int canonicalHash() {
+		int t = symmetry();
+		return Symmetry.code(Symmetry.mask(t, xs), Symmetry.mask(t, os)) + ((whoseTurn == x) ? 1 : 2);
+	}
+
+	/**
+	 * 
+	 * @param t the index of a {@link Symmetry}
+	 * @return a copy of this game with the board transformed by symmetry {@code t}
+	 */
+	public Game transform(int t) {
+		Game g = clone();
+		g.xs = Symmetry.mask(t, xs);
+		g.os = Symmetry.mask(t, os);
+		g.code = Symmetry.code(g.xs, g.os);
+		return g;
+	}
+
 	public boolean equals(Object other) {
 		if (other == null)
 			return false;
@@ -651,7 +762,7 @@ public class Game {
 		return this.state != ONGOING;
 	}
 
-	public static final String help = " -h this menu" + "\n -x the X agent: -x <pi, vi, random, agg, def, human>"
+	public static final String help = " -h this menu" + "\n -x the X agent: -x <pi, vi, retro, ql, random, agg, def, human>"
 			+ "\n -o the O agent: -o <random, agg, def, human>"
 			+ "\n -s the agent that starts the game (x or o): -s <x or o>";
 
@@ -709,15 +820,18 @@ public class Game {
 			case "-x":
 				next = iter.next();
 				if (next == null || next.startsWith("-")) {
-					System.out.println("-x should be followed by the agent name, vi, pi, random, agg, def, or human");
+					System.out.println("-x should be followed by the agent name, vi, pi, retro, ql, random, agg, def, or human");
 					return;
 				}
 				if (next.equals("vi")) {
 					System.out.println("x is vi agent.");
-					x = new ValueIterationAgent();
+					x = ValueIterationAgent.newInstance();
 				} else if (next.equals("pi")) {
 					System.out.println("X is pi agent.");
-					x = new PolicyIterationAgent();
+					x = PolicyIterationAgent.newInstance();
+				} else if (next.equals("retro")) {
+					System.out.println("X is retrograde agent.");
+					x = new RetrogradeAgent();
 				} else if (next.equals("random")) {
 					System.out.println("X is random agent.");
 					x = new RandomAgent();
@@ -733,9 +847,9 @@ public class Game {
 					x = new DefensiveAgent();
 				} else if (next.equals("ql")) {
 					System.out.println("X is q learning agent.");
-					x = new QLearningAgent();
+					x = QLearningAgent.newInstance();
 				} else {
-					System.out.println("-x should be followed by the agent type: vi, pi, ql, random or human");
+					System.out.println("-x should be followed by the agent type: vi, pi, retro, ql, random or human");
 					return;
 
 				}
@@ -755,6 +869,9 @@ public class Game {
 				else if (next.equals("pi")) {
 					System.out.println("Error: the policy iteration agent should be the X agent");
 					return;
+				} else if (next.equals("retro")) {
+					System.out.println("Error: the retrograde agent should be the X agent");
+					return;
 				} else if (next.equals("random"))
 					o = new RandomAgent();
 				else if (next.equals("human")) {
@@ -769,7 +886,7 @@ public class Game {
 					o = new DefensiveAgent();
 				} else if (next.equals("ql")) {
 					System.out.println("O is q learning agent.");
-					o = new QLearningAgent();
+					o = QLearningAgent.newInstance();
 				} else {
 					System.out.println("Error: -x should be followed by the agent type: vi, pi, random or human");
 					return;
@@ -48,7 +48,7 @@ public class HumanAgent extends Agent {
 			return getMove(g);
 		}
 		
-		Move m=new Move(name, x, y);
+		Move m=Move.of(name, x, y);
 		if (!g.isLegal(m))
 		{
 			System.out.println("Illegal move. Choose again.");
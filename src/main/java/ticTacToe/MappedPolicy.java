@@ -0,0 +1,61 @@
+package ticTacToe;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+
+/**
+ * A policy read straight from a (memory mapped) policy file, see
+ * {@link PolicyFile#load(String)}: looking up the move of a game is reading
+ * the byte at its {@link StateIndex} id. The {@link Policy#policy} map of this
+ * policy is empty and unmodifiable, so that a mapped policy cannot be changed,
+ * and can be shared by several agents (see {@link SolvedModelCache}).
+ *
+ * @author ae187
+ *
+ */
+public class MappedPolicy extends Policy {
+
+	/**
+	 * the whole policy file
+	 */
+	private final ByteBuffer moves;
+
+	private final SolverParameters parameters;
+
+	MappedPolicy(ByteBuffer moves, SolverParameters parameters) {
+		this.moves = moves;
+		this.parameters = parameters;
+		this.policy = Collections.emptyMap();
+	}
+
+	/**
+	 *
+	 * @return the parameters the policy was solved with
+	 */
+	public SolverParameters getParameters() {
+		return parameters;
+	}
+
+	/**
+	 *
+	 * @param id a {@link StateIndex} id
+	 * @return the cell played in the game with this id, or -1 if there is none
+	 */
+	public int cell(int id) {
+		return moves.get(PolicyFile.HEADER_BYTES + id);
+	}
+
+	/**
+	 * @return the move stored for {@code g}, or null if there is none
+	 */
+	@Override
+	public Move getMove(Game g) {
+		int id = StateIndex.get().id(g);
+		if (id < 0)
+			return null;
+
+		int cell = cell(id);
+		return cell < 0 ? null : Move.of(g.whoseTurn.getName(), cell);
+	}
+
+}
@@ -2,6 +2,9 @@ package ticTacToe;
 
 /**
  * A move in the Tic-Tac-Toe game. If the game is modelled as an MDP, a Move is essentially an MDP Action.
+ * 
+ * Moves are immutable. There are only 18 different moves (X or O times 9 cells), and a shared instance of each is 
+ * available from {@link Move#of(char, int)}, which should be preferred to the constructors.
  * @author ae187
  *
  */
@@ -10,17 +13,77 @@ public class Move {
 	/**
 	 * can be either 'X', or 'O' 
 	 */
-	public Agent who;
-	public int x;
-	public int y;
+	public final Agent who;
+	public final int x;
+	public final int y;
+	
+	/**
+	 * The agents standing for 'X' and 'O' in moves that are not made by a particular agent. Do not use them to play games.
+	 */
+	private static final Agent X=side('X');
+	private static final Agent O=side('O');
+	
+	/**
+	 * The shared moves: the 9 moves by X, one for every cell (3*x+y), then the 9 moves by O.
+	 */
+	private static final Move[] MOVES=new Move[18];
+	
+	static
+	{
+		for(int cell=0;cell<9;cell++)
+		{
+			MOVES[cell]=new Move(X, cell/3, cell%3);
+			MOVES[9+cell]=new Move(O, cell/3, cell%3);
+		}
+	}
+	
+	private static Agent side(char name)
+	{
+		Agent a=new Agent();
+		a.setName(name);
+		return a;
+	}
+	
+	/**
+	 * 
+	 * @param who either 'X' or 'O'
+	 * @param cell the cell, 3*x+y
+	 * @return the shared move by {@code who} in {@code cell}
+	 */
+	public static Move of(char who, int cell)
+	{
+		if (cell<0 || cell>8)
+			throw new IllegalArgumentException("Invalid cell");
+		
+		if (who=='X')
+			return MOVES[cell];
+		else if (who=='O')
+			return MOVES[9+cell];
+		
+		throw new IllegalArgumentException("Can only be a move by X or by O");
+	}
+	
+	/**
+	 * 
+	 * @param who either 'X' or 'O'
+	 * @param x
+	 * @param y
+	 * @return the shared move by {@code who} at (x,y)
+	 */
+	public static Move of(char who, int x, int y)
+	{
+		if (x<0 || x>2 || y<0 || y>2)
+			throw new IllegalArgumentException("Invalid x or y coordinates");
+		
+		return of(who, 3*x+y);
+	}
 	
 	public Move(char who, int x, int y)
 	{
 		if (who!='X' && who!='O')
 			throw new IllegalArgumentException("Can only be a move by X or by O");
 		
-		this.who=new Agent();
-		this.who.setName(who);
+		this.who=(who=='X')?X:O;
 		
 		if (x<0 || x>2 || y<0 || y>2)
 			throw new IllegalArgumentException("Invalid x or y coordinates");
@@ -49,6 +112,25 @@ public class Move {
 	
 	}
 	
+	/**
+	 * 
+	 * @param t the index of a {@link Symmetry}
+	 * @return this move on the board transformed by symmetry {@code t}
+	 */
+	public Move transform(int t)
+	{
+		return of(who.getName(), Symmetry.cell(t, getCell()));
+	}
+	
+	/**
+	 * 
+	 * @return the cell of this move, 3*x+y
+	 */
+	public int getCell()
+	{
+		return 3*x+y;
+	}
+	
 	public String toString()
 	{
 		return who+"("+x+","+y+")";
@@ -19,11 +19,33 @@ public class Outcome {
 	public double localReward=0.0;//reward received.
 	public Game sPrime;//destination state
 	
+	/**
+	 * The {@link StateIndex} ids of the source and destination states, -1 if a state is not a valid game.
+	 */
+	public int sId=-1;
+	public int sPrimeId=-1;
+	
 	public Outcome(Game s, Move move, double reward, Game sPrime) {
+		set(s, move, reward, sPrime);
+	}
+	
+	/**
+	 * An empty outcome, to be filled by {@link #set}.
+	 */
+	Outcome() {
+	}
+	
+	/**
+	 * Makes this object the outcome (s,move,reward,sPrime), so it can be reused instead of allocating a new one.
+	 */
+	void set(Game s, Move move, double reward, Game sPrime) {
+		StateIndex index=StateIndex.get();
 		this.s=s;
 		this.sPrime=sPrime;
 		this.move=move;
 		this.localReward=reward;
+		this.sId=index.idOfHash(s.hashCode());
+		this.sPrimeId=index.idOfHash(sPrime.hashCode());
 	}
 
 	public String toString()
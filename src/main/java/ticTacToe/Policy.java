@@ -1,7 +1,11 @@
 package ticTacToe;
 
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
 
 /**
  * A Tic Tac Toe Policy implemented via a HashMap
@@ -11,9 +15,14 @@ import java.util.HashMap;
 public class Policy {
 	
 	/**
-	 * a hash map that stores the policy
+	 * a hash map that stores the policy; unmodifiable in policies that are shared, like {@link MappedPolicy}
 	 */
-	HashMap<Game, Move> policy=new HashMap<Game, Move>();
+	Map<Game, Move> policy=new HashMap<Game, Move>();
+	
+	/**
+	 * the random numbers of stochastic policies, null to use those of the current thread (see {@link RandomSource})
+	 */
+	SplittableRandom random;
 	
 	/**
 	 * Create policy according to this map
@@ -27,7 +36,9 @@ public class Policy {
 	{}
 	
 	/**
-	 * Default behaviour here is that if the game state is not in the policy map {@link Policy#policy} then the policy returns null.
+	 * Default behaviour here is that if the game state is not in the policy map {@link Policy#policy} then the move stored 
+	 * for its canonical form (see {@link Game#canonical()}) is mapped back onto {@code g} and returned. This way the map only 
+	 * needs to contain canonical games. If neither is in the map, the policy returns null.
 	 * You can override this method for different behaviours, e.g. returning a random move if this happens.
 	 *  
 	 * @param g
@@ -38,23 +49,60 @@ public class Policy {
 		if (policy.containsKey(g))
 			return policy.get(g);
 		
+		Move m=policy.get(g.canonical());
+		if (m!=null)
+			return m.transform(Symmetry.inverse(g.symmetry()));
+		
 		return null;
 		
 		
 	}
 	
 	/**
-	 * loads policy from file. One possible format for storing a policy is as a sequence of lines where each line
-	 * specifies the action/move determined by the policy in a particular game state. The game states should not
-	 * explicitly stored, only their hashes are stored. The {@link Game} object itself can be constructed using the 
-	 * {@link Game#inverseHash} method.
+	 * Gives this policy its own random numbers, e.g. to make it reproducible. Only use this if a single thread uses the
+	 * policy: by default, a policy draws from the generator of the thread calling it (see {@link RandomSource}).
+	 * @param random the generator, or null to use the current thread's
+	 */
+	public void setRandom(SplittableRandom random)
+	{
+		this.random=random;
+	}
+	
+	/**
+	 * 
+	 * @return the random numbers to use
+	 */
+	protected SplittableRandom random()
+	{
+		return random!=null ? random : RandomSource.current();
+	}
+	
+	/**
+	 * loads policy from file, written with {@link PolicyFile#save}. The file stores the move of every game state by 
+	 * its {@link StateIndex} id rather than the state itself (see {@link PolicyFile}); this constructor puts all of 
+	 * them in the {@link #policy} map. Use {@link PolicyFile#load} to use the file directly instead.
 	 *  
 	 * @param file
+	 * @throws UncheckedIOException if the file cannot be read
 	 */
 	public Policy(String file)
 	{
-		/* implement this constructor to load a stored policy from file. */
+		MappedPolicy stored;
+		try {
+			stored=PolicyFile.load(file);
+		}
+		catch(IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
 		
+		StateIndex index=StateIndex.get();
+		for(int id=0;id<index.size();id++)
+		{
+			int cell=stored.cell(id);
+			if (cell>=0)
+				policy.put(index.game(id), Move.of(index.game(id).whoseTurn.getName(), cell));
+		}
 	}
 
 	
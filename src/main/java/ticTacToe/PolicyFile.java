@@ -0,0 +1,148 @@
+package ticTacToe;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Saves and loads policies in a compact binary format, with one byte per
+ * {@link StateIndex} id:
+ *
+ * <pre>
+ * int    magic ('TTTP')
+ * int    format version
+ * int    number of states ({@link StateIndex#size()})
+ * ...    the {@link SolverParameters} of the policy ({@link SolverParameters#BYTES} bytes)
+ * byte[] for every state id, the cell (3*x+y) the policy plays in that state, or -1 if it has no move
+ *        (e.g. the game is over)
+ * </pre>
+ *
+ * All numbers are big-endian. A whole policy takes about 12KB, and
+ * {@link #load(String)} maps the file into memory instead of reading it, so
+ * loading is nearly instant.
+ *
+ * @author ae187
+ *
+ */
+public final class PolicyFile {
+
+	static final int MAGIC = 0x54545450;
+
+	static final int VERSION = 1;
+
+	/**
+	 * the offset of the moves in the file
+	 */
+	static final int HEADER_BYTES = 3 * Integer.BYTES + SolverParameters.BYTES;
+
+	private PolicyFile() {
+	}
+
+	/**
+	 * Writes policy {@code p} to {@code file}, replacing it if it exists.
+	 *
+	 * @param p          the policy
+	 * @param parameters the parameters it was solved with
+	 * @param file
+	 * @throws IOException
+	 */
+	public static void save(Policy p, SolverParameters parameters, String file) throws IOException {
+		ByteBuffer buffer = encode(p, parameters);
+		try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining())
+				channel.write(buffer);
+		}
+	}
+
+	/**
+	 *
+	 * @param p          the policy
+	 * @param parameters the parameters it was solved with
+	 * @return the contents of a policy file with {@code p}, ready to be read
+	 */
+	static ByteBuffer encode(Policy p, SolverParameters parameters) {
+		StateIndex index = StateIndex.get();
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + index.size());
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(index.size());
+		parameters.write(buffer);
+
+		for (int id = 0; id < index.size(); id++) {
+			Game g = index.game(id);
+			Move m = g.isTerminal() ? null : p.getMove(g);
+			buffer.put((byte) (m == null ? -1 : m.getCell()));
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * Maps {@code file} into memory and checks its header.
+	 *
+	 * @param file
+	 * @return the mapped policy
+	 * @throws IOException if the file cannot be read, or is not a policy file for
+	 *                     this version of the game
+	 */
+	public static MappedPolicy load(String file) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return read(buffer, file);
+		}
+	}
+
+	/**
+	 * Reads a policy from the contents of a policy file, e.g. a resource read
+	 * into memory.
+	 *
+	 * @param buffer the whole file
+	 * @param name   the name of the file, for error messages
+	 * @return the policy, backed by {@code buffer}
+	 * @throws IOException if {@code buffer} is not a policy file for this
+	 *                     version of the game
+	 */
+	static MappedPolicy read(ByteBuffer buffer, String name) throws IOException {
+		if (buffer.capacity() != HEADER_BYTES + StateIndex.get().size())
+			throw new IOException("Not a policy file: " + name);
+
+		return new MappedPolicy(buffer, readHeader(buffer, name));
+	}
+
+	/**
+	 * Reads the header of a policy file.
+	 *
+	 * @param file
+	 * @return the parameters the stored policy was solved with
+	 * @throws IOException
+	 */
+	public static SolverParameters readParameters(String file) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+			ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES);
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0)
+				;
+			buffer.flip();
+			return readHeader(buffer, file);
+		}
+	}
+
+	/**
+	 * Checks the header at the start of {@code buffer} and reads the parameters
+	 * in it.
+	 */
+	static SolverParameters readHeader(ByteBuffer buffer, String file) throws IOException {
+		if (buffer.remaining() < HEADER_BYTES || buffer.getInt(0) != MAGIC)
+			throw new IOException("Not a policy file: " + file);
+		if (buffer.getInt(4) != VERSION)
+			throw new IOException("Unsupported policy file version " + buffer.getInt(4) + ": " + file);
+		if (buffer.getInt(8) != StateIndex.get().size())
+			throw new IOException("Wrong number of states in policy file: " + file);
+
+		ByteBuffer parameters = buffer.duplicate();
+		parameters.position(3 * Integer.BYTES);
+		return SolverParameters.read(parameters);
+	}
+
+}
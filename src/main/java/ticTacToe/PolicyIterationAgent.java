@@ -1,11 +1,10 @@
 package ticTacToe;
 
 
-import java.util.Date;
+import java.io.IOException;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * A policy iteration agent. You should implement the following methods:
@@ -19,20 +18,28 @@ import java.util.Map;
  * some small delta). The latter happens when the policy improvement step no longer updates the policy, i.e. the current policy 
  * is already optimal. The algorithm should stop when this happens.
  * 
+ * By default policies are evaluated exactly in one pass (see {@link #evaluatePolicyExactly()}). Alternatively, this
+ * implementation does modified policy iteration: each evaluation step does at most {@link #evaluationSweeps} sweeps
+ * over the states, so evaluation accuracy can be traded against time. With a large number of sweeps it is ordinary
+ * policy iteration. Both steps work on the decision states of the compiled {@link TTTMDP} (see {@link CompiledTTTMDP}).
+ *
  * @author ae187
  *
  */
 public class PolicyIterationAgent extends Agent {
 
 	/**
-	 * This map is used to store the values of states according to the current policy (policy evaluation). 
+	 * This array is used to store the values of states according to the current policy (policy evaluation), indexed by
+	 * their {@link StateIndex} id. Only canonical states are updated (see {@link Game#canonical()}), symmetric states
+	 * having the same value; terminal states keep the value 0.
 	 */
-	HashMap<Game, Double> policyValues=new HashMap<Game, Double>();
+	double[] policyValues=new double[StateIndex.get().size()];
 	
 	/**
-	 * This stores the current policy as a map from {@link Game}s to {@link Move}. 
+	 * This stores the current policy: {@code curPolicy[row]} is the action of the {@link CompiledTTTMDP} taken in the
+	 * decision state of that row.
 	 */
-	HashMap<Game, Move> curPolicy=new HashMap<Game, Move>();
+	int[] curPolicy;
 	
 	double discount=0.9;
 	
@@ -40,16 +47,60 @@ public class PolicyIterationAgent extends Agent {
 	 * The mdp model used, see {@link TTTMDP}
 	 */
 	TTTMDP mdp;
+
+	/**
+	 * If true (the default), {@link #train} evaluates policies exactly with {@link #evaluatePolicyExactly()}. Otherwise
+	 * it uses the iterative {@link #evaluatePolicy(double)}.
+	 */
+	boolean exactEvaluation=true;
+
+	/**
+	 * The maximum number of sweeps over the states in each iterative policy evaluation step.
+	 */
+	int evaluationSweeps=20;
+
+	/**
+	 * The number of policy evaluation and improvement rounds performed by {@link #train}
+	 */
+	int rounds=0;
+
+	/**
+	 * Time spent in policy evaluation and policy improvement by {@link #train}, in nanoseconds.
+	 */
+	long evaluationTime=0;
+	long improvementTime=0;
+
+	/**
+	 * The number of threads used by {@link #improvePolicy}. With more than one thread, the decision states are split
+	 * between them with fork/join. Each state's action only depends on {@link #policyValues}, which is not changed by
+	 * the improvement step, so the result does not depend on the thread count.
+	 */
+	int parallelism=1;
+
+	/**
+	 * The number of states whose action was changed by the last call to {@link #improvePolicy}.
+	 */
+	int policyChanges=0;
+
+	/**
+	 * The largest change of a value in the last evaluation sweep.
+	 */
+	double residual=Double.POSITIVE_INFINITY;
+	
+	/**
+	 * Whether values were restored from a checkpoint, so that {@link #train} starts from their greedy policy.
+	 */
+	boolean warmStart=false;
 	
 	/**
-	 * loads the policy from file if one exists. Policies should be stored in .pol files directly under the project folder.
+	 * This constructor trains the agent offline first and sets its policy. To start from a stored policy instead, use
+	 * {@link #loadPolicyFromFile()} or {@link #newInstance()}.
 	 */
 	public PolicyIterationAgent() {
 		super();
 		this.mdp=new TTTMDP();
 		initValues();
-		initRandomPolicy();
-		train();
+		solve();
 		
 		
 	}
@@ -74,8 +125,7 @@ public class PolicyIterationAgent extends Agent {
 		this.discount=discountFactor;
 		this.mdp=new TTTMDP();
 		initValues();
-		initRandomPolicy();
-		train();
+		solve();
 	}
 	/**
 	 * Use this constructor to set the various parameters of the Tic-Tac-Toe MDP
@@ -90,181 +140,425 @@ public class PolicyIterationAgent extends Agent {
 		this.discount=discountFactor;
 		this.mdp=new TTTMDP(winningReward, losingReward, livingReward, drawReward);
 		initValues();
-		initRandomPolicy();
-		train();
+		solve();
+	}
+	/**
+	 * An agent for {@code mdp} that has not been trained yet, e.g. to be trained in the background by 
+	 * {@link AsyncAgent#train(Agent, java.util.concurrent.Executor)}
+	 * @param mdp
+	 * @param discountFactor
+	 */
+	public PolicyIterationAgent(TTTMDP mdp, double discountFactor)
+	{
+		this.mdp=mdp;
+		this.discount=discountFactor;
+	}
+	
+	/**
+	 * Like {@link #PolicyIterationAgent()}, but uses the presolved policy and values (see {@link PresolvedPolicies}) 
+	 * instead of solving the MDP when there are some.
+	 * @return a trained agent
+	 */
+	public static PolicyIterationAgent newInstance()
+	{
+		return newInstance(new PolicyIterationAgent(new TTTMDP(), 0.9));
 	}
+	
 	/**
-	 * Initialises the {@link #policyValues} map, and sets the initial value of all states to 0 
-	 * (V0 under some policy pi ({@link #curPolicy} from the lectures). Uses {@link Game#inverseHash} and {@link Game#generateAllValidGames(char)} to do this. 
+	 * Like {@link #PolicyIterationAgent(double, double, double, double, double)}, but uses the presolved policy and 
+	 * values (see {@link PresolvedPolicies}) instead of solving the MDP if they were solved with the same parameters.
+	 * @return a trained agent
+	 */
+	public static PolicyIterationAgent newInstance(double discountFactor, double winningReward, double losingReward, double livingReward, double drawReward)
+	{
+		return newInstance(new PolicyIterationAgent(new TTTMDP(winningReward, losingReward, livingReward, drawReward), discountFactor));
+	}
+	
+	private static PolicyIterationAgent newInstance(PolicyIterationAgent agent)
+	{
+		MappedPolicy policy=PresolvedPolicies.policy(agent.getParameters());
+		Checkpoint values=PresolvedPolicies.values(agent.getParameters());
+		if (policy!=null && values!=null)
+			agent.use(policy, values);
+		else
+			agent.solve();
+		
+		return agent;
+	}
+	
+	/**
+	 * Initialises the {@link #policyValues} array, and sets the initial value of all states to 0
+	 * (V0 under some policy pi ({@link #curPolicy} from the lectures).
 	 * 
 	 */
 	public void initValues()
 	{
-		List<Game> allGames=Game.generateAllValidGames('X');//all valid games where it is X's turn, or it's terminal.
-		for(Game g: allGames)
-			this.policyValues.put(g, 0.0);
+		this.policyValues=new double[StateIndex.get().size()];
 		
 	}
 	
 	/**
-	 *  You should implement this method to initially generate a random policy, i.e. fill the {@link #curPolicy} for every state. Take care that the moves you choose
-	 *  for each state ARE VALID. You can use the {@link Game#getPossibleMoves()} method to get a list of valid moves and choose 
-	 *  randomly between them. 
+	 *  Initially generates a random policy, i.e. fills the {@link #curPolicy} with a random valid action for every
+	 *  decision state.
 	 */
 	public void initRandomPolicy()
 	{
-	    Iterator<Game> stateIterator = this.policyValues.keySet().iterator();
+		CompiledTTTMDP model = mdp.compile();
+		this.curPolicy = new int[model.numRows()];
 	    
 	    // loop through all the states
-	    while (stateIterator.hasNext()) {
-	        Game state = stateIterator.next();
-
-	        if (state.isTerminal()) continue; // skip terminal states
-	        curPolicy.put(state, state.getPossibleMoves().get((int) (Math.random() * state.getPossibleMoves().size()))); // Policy initialisation
-	    }
+		for (int row = 0; row < model.numRows(); row++) {
+			int numActions = model.endAction(row) - model.firstAction(row);
+			curPolicy[row] = model.firstAction(row) + RandomSource.current().nextInt(numActions); // Policy initialisation
+		}
 	}
 	
 	
 	/**
-	 * Performs policy evaluation steps until the maximum change in values is less than {@code delta}, in other words
-	 * until the values under the currrent policy converge. After running this method, 
-	 * the {@link PolicyIterationAgent#policyValues} map should contain the values of each reachable state under the current policy. 
-	 * You should use the {@link TTTMDP} {@link PolicyIterationAgent#mdp} provided to do this.
+	 * Performs policy evaluation sweeps until the maximum change in values is less than {@code delta}, in other words
+	 * until the values under the currrent policy converge, or until {@link #evaluationSweeps} sweeps have been done.
+	 * Values are updated in place. After running this method, the {@link PolicyIterationAgent#policyValues} array contains
+	 * the values of each reachable state under the current policy (or an approximation of them).
 	 *
 	 * @param delta
 	 */
 	protected void evaluatePolicy(double delta)
 	{
-		double qValue;
-	    double previousValue;
+		CompiledTTTMDP model = mdp.compile();
 	    
-	    Iterator<Game> stateIterator = this.policyValues.keySet().iterator();
-	    
-	    // loop through all the states
-	    while (stateIterator.hasNext()) {
-	        Game state = stateIterator.next();
-	        
-	        if (state.isTerminal()) { // if state is terminal skip it
-	            this.policyValues.put(state, 0.0);
-	            continue;
-	        }
-
-	        previousValue = this.policyValues.get(state); // Store the current value of the state to check for convergence later
-
-	        boolean converged = false;
-	        while (!converged) {
-	            
-	            qValue = calculateQValue(state, this.curPolicy.get(state));  // Q value calculation
-
-	            this.policyValues.put(state, qValue); // Update the value of the state with the newly calculated Q-value
-
-	            // Check for convergence 
-	            if (qValue - previousValue <= delta) converged = true;
-	            
-	            previousValue = qValue; // Update the previous value to the newly computed value for the next iteration
-	        }
-	    }
+		residual = Double.POSITIVE_INFINITY;
+		for (int sweep = 0; sweep < evaluationSweeps && residual >= delta; sweep++) {
+			residual = 0;
+			for (int row = 0; row < model.numRows(); row++) {
+				int s = model.state(row);
+				double v = model.qValue(curPolicy[row], policyValues, discount);
+				residual = Math.max(residual, Math.abs(v - policyValues[s]));
+				policyValues[s] = v;
+			}
+		}
 	}
 		
 	
 	
+	/**
+	 * Computes the exact values of the current policy in a single pass, without iterating. Every move adds pieces to the
+	 * board, so the states form a DAG, and the rows of the {@link CompiledTTTMDP} are ordered by decreasing number of
+	 * pieces: when a state is evaluated, all the states it can lead to have their final values already.
+	 */
+	protected void evaluatePolicyExactly()
+	{
+		CompiledTTTMDP model = mdp.compile();
+
+		for (int row = 0; row < model.numRows(); row++)
+			policyValues[model.state(row)] = model.qValue(curPolicy[row], policyValues, discount);
+
+		residual = 0;
+	}
+
 	/**This method should be run AFTER the {@link PolicyIterationAgent#evaluatePolicy} train method to improve the current policy according to 
-	 * {@link PolicyIterationAgent#policyValues}. You will need to do a single step of expectimax from each game (state) key in {@link PolicyIterationAgent#curPolicy} 
-	 * to look for a move/action that potentially improves the current policy. 
+	 * {@link PolicyIterationAgent#policyValues}. It does a single step of expectimax from each decision state to look for a
+	 * move/action that improves the current policy. The current action is only replaced by a strictly better one.
 	 * 
 	 * @return true if the policy improved. Returns false if there was no improvement, i.e. the policy already returned the optimal actions.
 	 */
 	protected boolean improvePolicy()
 	{
-		// Store the current policy to compare with the updated policy later
-		Policy previousPolicy = new Policy();
-	    Iterator<Map.Entry<Game, Move>> entryIterator = this.curPolicy.entrySet().iterator();
-	    double qValue;
-
-	    while (entryIterator.hasNext()) {
-	        Map.Entry<Game, Move> entry = entryIterator.next();
-	        previousPolicy.policy.put(entry.getKey(), entry.getValue());
-	    }
+		CompiledTTTMDP model = mdp.compile();
 
-	    boolean policyChanged = false; // Track whether any change has been made to the policy
+		if (parallelism > 1) {
+			ForkJoinPool pool = new ForkJoinPool(parallelism);
+			try {
+				policyChanges = pool.invoke(new Improvement(model, policyValues, curPolicy, discount, 0, model.numRows()));
+			} finally {
+				pool.shutdown();
+			}
+		} else
+			policyChanges = improve(model, policyValues, curPolicy, discount, 0, model.numRows());
 
-	    Iterator<Map.Entry<Game, Move>> policyIterator = this.curPolicy.entrySet().iterator();
-	    
-	    // loop through all states in the current policy
-	    while (policyIterator.hasNext()) {
-	        Map.Entry<Game, Move> policyEntry = policyIterator.next();
-	        Game state = policyEntry.getKey();
-	        Move currentMove = policyEntry.getValue();
-
-	        // Initialize the best value and move with the current policy values
-	        double bestValue = this.policyValues.get(state);
-	        Move bestMove = currentMove;
-
-	        Iterator<Move> moveIterator = state.getPossibleMoves().iterator();
-	        
-	        // loop through all possible moves from the current state
-	        while (moveIterator.hasNext()) {
-	            Move move = moveIterator.next();
-	            
-	            qValue = calculateQValue(state, move); // Q value calculation
-	            
-	            if (qValue > bestValue) { // Update the best move and value if the new Q value is higher
-	                bestValue = qValue;
-	                bestMove = move;
-	                policyChanged = true;
-	            }
-	        }
-	        this.curPolicy.put(state, bestMove); // Update the policy with the best move found for the state
-	    }
+	    return policyChanges > 0;
+	}
+
+	/**
+	 * Improves the actions of rows {@code from} (inclusive) to {@code to} (exclusive) of {@code curPolicy}.
+	 * @return the number of actions changed
+	 */
+	private static int improve(CompiledTTTMDP model, double[] values, int[] curPolicy, double discount, int from, int to)
+	{
+		int changes = 0;
+		for (int row = from; row < to; row++) {
+			int best = model.bestAction(row, values, discount);
 
-	    return policyChanged;
+			if (model.qValue(best, values, discount) > model.qValue(curPolicy[row], values, discount)) {
+				curPolicy[row] = best; // Update the policy with the best move found for the state
+				changes++;
+			}
+		}
+		return changes;
+	}
+
+	/**
+	 * A parallel {@link PolicyIterationAgent#improve}: splits its rows in halves until there are at most
+	 * {@link Improvement#CHUNK} left. Returns the number of actions changed in its rows.
+	 */
+	private static class Improvement extends RecursiveTask<Integer> {
+
+		private static final long serialVersionUID = 1L;
+
+		static final int CHUNK = 128;
+
+		final CompiledTTTMDP model;
+		final double[] values;
+		final int[] curPolicy;
+		final double discount;
+		final int from;
+		final int to;
+
+		Improvement(CompiledTTTMDP model, double[] values, int[] curPolicy, double discount, int from, int to) {
+			this.model = model;
+			this.values = values;
+			this.curPolicy = curPolicy;
+			this.discount = discount;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected Integer compute() {
+			if (to - from <= CHUNK)
+				return improve(model, values, curPolicy, discount, from, to);
+
+			int mid = (from + to) >>> 1;
+			Improvement left = new Improvement(model, values, curPolicy, discount, from, mid);
+			left.fork();
+			int right = new Improvement(model, values, curPolicy, discount, mid, to).compute();
+			return left.join() + right;
+		}
 	}
 	
 	/**
 	 * The (convergence) delta
 	 */
-	double delta=0.1;
+	double delta=1e-6;
 	
 	/**
-	 * This method should perform policy evaluation and policy improvement steps until convergence (i.e. until the policy
-	 * no longer changes), and so uses your 
-	 * {@link PolicyIterationAgent#evaluatePolicy} and {@link PolicyIterationAgent#improvePolicy} methods.
+	 * This method performs policy evaluation and policy improvement steps until convergence (i.e. until the policy
+	 * no longer changes and its values have converged), and so uses
+	 * {@link PolicyIterationAgent#evaluatePolicy} and {@link PolicyIterationAgent#improvePolicy}.
 	 */
 	public void train()
 	{
-	    initRandomPolicy(); // Policy Initialization for every state
+	    if (warmStart)
+	    	initGreedyPolicy(); // start from the restored values
+	    else
+	    	initRandomPolicy(); // Policy Initialization for every state
+	    warmStart = false;
 	    boolean policyImproved = true;  // to track whether the policy improves during each iteration, set to true so that the loop starts
+	    rounds = 0;
+	    evaluationTime = 0;
+	    improvementTime = 0;
 	    
-	    // this loops until the policy no longer improves i.e is converged
-	    while (policyImproved) {
-	        evaluatePolicy(delta); // perform policy evaluation
+	    // this loops until the policy no longer improves and its values have converged
+	    while (policyImproved || residual >= delta) {
+	    	long start = System.nanoTime();
+	        if (exactEvaluation)
+	        	evaluatePolicyExactly(); // perform policy evaluation
+	        else
+	        	evaluatePolicy(delta);
+	        long evaluated = System.nanoTime();
 	        policyImproved = improvePolicy(); // perform policy improvement
+	        improvementTime += System.nanoTime() - evaluated;
+	        evaluationTime += evaluated - start;
+	        rounds++;
+	        reportProgress(rounds, -1); // the number of rounds is not known in advance
 	    }
-	    super.policy = new Policy(curPolicy); // assign the converged policy to the agent
+	    super.policy = extractPolicy(); // assign the converged policy to the agent
+	}
+	
+	/**
+	 * Like {@link #train()}, but takes the values and policy from {@link SolvedModelCache#shared()} if an agent with 
+	 * the same parameters has solved the mdp before, and caches them otherwise.
+	 */
+	void solve()
+	{
+		SolvedModelCache.Model model = SolvedModelCache.shared().get(getParameters(), () -> {
+			train();
+			return new SolvedModelCache.Model(getParameters(), policy, rounds, residual, policyValues);
+		});
+		use(model.getPolicy(), model.getValues());
+	}
+	
+	/**
+	 * Takes a solved policy and its values, e.g. from {@link SolvedModelCache} or {@link PresolvedPolicies}, as if 
+	 * this agent had been trained: sets the policy, {@link #policyValues} with the rounds and residual they took, and 
+	 * {@link #curPolicy}, to the actions of the policy so that {@link #extractPolicy()} gives it back.
+	 * @param policy
+	 * @param values
+	 */
+	private void use(Policy policy, Checkpoint values)
+	{
+		values.copyTo(Checkpoint.Kind.STATE_VALUES, policyValues);
+		this.rounds = (int) values.getProgress();
+		this.residual = values.getResidual();
+		
+		CompiledTTTMDP model = mdp.compile();
+		StateIndex index = StateIndex.get();
+		this.curPolicy = new int[model.numRows()];
+		for (int row = 0; row < model.numRows(); row++) {
+			Move move = policy.getMove(index.game(model.state(row)));
+			int action = (move == null) ? -1 : model.action(row, move.getCell());
+			curPolicy[row] = (action >= 0) ? action : model.bestAction(row, policyValues, discount);
+		}
+		super.policy = policy;
 	}
 	
 	/**
-	 * calculates the Q-value for a given state and move using the transition probabilities.
-	 * @param state a given state
-	 * @param move a given action
-	 * @return the calculated q value using bellman's eqn for Q(state,move)
+	 *
+	 * @return the current policy as a {@link Policy} over the canonical decision states
 	 */
-	private double calculateQValue(Game state, Move move) {
-	    double qValue = 0; // Value Initialization
+	public Policy extractPolicy()
+	{
+		CompiledTTTMDP model = mdp.compile();
+		StateIndex index = StateIndex.get();
+		HashMap<Game, Move> map = new HashMap<Game, Move>();
 	    
-	    // getting the transitions for the given state and move
-	    List<TransitionProb> transitions = mdp.generateTransitions(state, move);
-	    Iterator<TransitionProb> transitionIterator = transitions.iterator();
+		for (int row = 0; row < model.numRows(); row++)
+			map.put(index.game(model.state(row)), Move.of('X', model.cell(curPolicy[row])));
 	    
-	    // Performs q value calculation for a given state with all possible moves
-	    while (transitionIterator.hasNext()) {
-	        TransitionProb transition = transitionIterator.next();
-	        double reward = transition.outcome.localReward;
-	        double futureValue = this.policyValues.get(transition.outcome.sPrime);
-	        qValue += transition.prob * (reward + (discount * futureValue)); // Value Updated
-	    }
+		return new Policy(map);
+	}
 	    
-	    return qValue;
+	/**
+	 * Saves {@link #policyValues}, with the parameters of the MDP and the number of rounds and residual of the last 
+	 * training, so that it can be restored with {@link #restoreCheckpoint(String)}.
+	 * @param file
+	 * @throws IOException
+	 */
+	public void saveCheckpoint(String file) throws IOException
+	{
+		Checkpoint.save(file, Checkpoint.Kind.STATE_VALUES, getParameters(), rounds, residual, policyValues);
+	}
+	
+	/**
+	 * Restores {@link #policyValues} from a checkpoint saved by {@link #saveCheckpoint(String)}. The next call to 
+	 * {@link #train()} starts from the policy that is greedy with respect to the restored values instead of a random 
+	 * one, so it needs fewer rounds (a warm start).
+	 * @param file
+	 * @throws IOException
+	 */
+	public void restoreCheckpoint(String file) throws IOException
+	{
+		Checkpoint checkpoint = Checkpoint.load(file);
+		double[] values = new double[StateIndex.get().size()];
+		checkpoint.copyTo(Checkpoint.Kind.STATE_VALUES, values);
+		
+		this.policyValues = values;
+		this.rounds = (int) checkpoint.getProgress();
+		this.residual = checkpoint.getResidual();
+		this.warmStart = true;
+	}
+	
+	/**
+	 * Fills {@link #curPolicy} with the best action of every decision state according to {@link #policyValues}.
+	 */
+	private void initGreedyPolicy()
+	{
+		CompiledTTTMDP model = mdp.compile();
+		this.curPolicy = new int[model.numRows()];
+		for (int row = 0; row < model.numRows(); row++)
+			curPolicy[row] = model.bestAction(row, policyValues, discount);
+	}
+	
+	/**
+	 * @return the discount factor and the rewards of the MDP
+	 */
+	@Override
+	public SolverParameters getParameters()
+	{
+		if (mdp==null)
+			return super.getParameters();
+		
+		return new SolverParameters(getClass().getSimpleName(), discount, mdp.winReward, mdp.loseReward, mdp.livingReward, mdp.drawReward);
+	}
+	
+	/**
+	 *
+	 * @param g
+	 * @return the value of {@code g} under the current policy
+	 */
+	public double getValue(Game g)
+	{
+		StateIndex index = StateIndex.get();
+		return policyValues[index.canonicalId(index.id(g))];
+	}
+
+	/**
+	 * Chooses between exact, single pass policy evaluation (the default) and iterative evaluation with at most
+	 * {@link #evaluationSweeps} sweeps, i.e. modified policy iteration.
+	 * @param exactEvaluation
+	 */
+	public void setExactEvaluation(boolean exactEvaluation)
+	{
+		this.exactEvaluation = exactEvaluation;
+	}
+
+	/**
+	 * Sets the maximum number of iterative evaluation sweeps between two policy improvement steps
+	 * @param evaluationSweeps
+	 */
+	public void setEvaluationSweeps(int evaluationSweeps)
+	{
+		if (evaluationSweeps < 1)
+			throw new IllegalArgumentException("At least one evaluation sweep is needed");
+
+		this.evaluationSweeps = evaluationSweeps;
+	}
+
+	/**
+	 * Sets the number of threads used by {@link #improvePolicy}; 1 (the default) improves in the calling thread.
+	 * @param parallelism
+	 */
+	public void setParallelism(int parallelism)
+	{
+		if (parallelism < 1)
+			throw new IllegalArgumentException("parallelism should be at least 1");
+
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 *
+	 * @return the number of states whose action was changed by the last policy improvement step
+	 */
+	public int getPolicyChanges()
+	{
+		return policyChanges;
+	}
+
+	/**
+	 *
+	 * @return the number of evaluation/improvement rounds of the last {@link #train}
+	 */
+	public int getRounds()
+	{
+		return rounds;
+	}
+
+	/**
+	 *
+	 * @return the time spent evaluating policies by the last {@link #train}, in milliseconds
+	 */
+	public double getEvaluationMillis()
+	{
+		return evaluationTime / 1e6;
+	}
+
+	/**
+	 *
+	 * @return the time spent improving policies by the last {@link #train}, in milliseconds
+	 */
+	public double getImprovementMillis()
+	{
+		return improvementTime / 1e6;
 	}
 	
 	public static void main(String[] args) throws IllegalMoveException
@@ -0,0 +1,140 @@
+package ticTacToe;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Policies and value tables solved ahead of time with the default parameters,
+ * shipped as classpath resources in the {@code ticTacToe} package so that
+ * agents can start without solving or training (see e.g.
+ * {@link ValueIterationAgent#newInstance()}).
+ *
+ * For every agent there is a {@code <class name>.pol} policy file (see
+ * {@link PolicyFile}) and, for the planning agents, a
+ * {@code <class name>.values} file with their state values (see
+ * {@link Checkpoint}). A resource is only used when the parameters in its
+ * header equal those the agent asks for.
+ *
+ * Run {@link #main(String[])} to (re)generate the resources, e.g. after a
+ * change to the MDP or the solvers.
+ *
+ * @author ae187
+ *
+ */
+public final class PresolvedPolicies {
+
+	/**
+	 * where {@link #main(String[])} writes the resources by default
+	 */
+	static final String DIRECTORY = "src/main/resources/ticTacToe";
+
+	/**
+	 * the seed of the random initial policy of policy iteration and of the
+	 * Q-learning run, so that generating the resources is reproducible
+	 */
+	public static final long SEED = 29;
+
+	private PresolvedPolicies() {
+	}
+
+	/**
+	 *
+	 * @param parameters the parameters of an agent
+	 * @return the presolved policy of the agent, or null if there is none for
+	 *         these parameters
+	 */
+	static MappedPolicy policy(SolverParameters parameters) {
+		String name = parameters.solver + ".pol";
+		try {
+			ByteBuffer contents = resource(name);
+			if (contents == null)
+				return null;
+
+			MappedPolicy policy = PolicyFile.read(contents, name);
+			return policy.getParameters().equals(parameters) ? policy : null;
+		} catch (IOException e) {
+			System.out.println("Ignoring " + name + ": " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 *
+	 * @param parameters the parameters of a planning agent
+	 * @return the presolved state values of the agent, or null if there are none
+	 *         for these parameters
+	 */
+	static Checkpoint values(SolverParameters parameters) {
+		String name = parameters.solver + ".values";
+		try {
+			ByteBuffer contents = resource(name);
+			if (contents == null)
+				return null;
+
+			Checkpoint values = Checkpoint.read(contents, name);
+			return values.getParameters().equals(parameters) ? values : null;
+		} catch (IOException e) {
+			System.out.println("Ignoring " + name + ": " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 *
+	 * @param name
+	 * @return the contents of resource {@code name} of this package, or null if
+	 *         there is no such resource
+	 * @throws IOException
+	 */
+	private static ByteBuffer resource(String name) throws IOException {
+		try (InputStream in = PresolvedPolicies.class.getResourceAsStream(name)) {
+			if (in == null)
+				return null;
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] chunk = new byte[1 << 16];
+			for (int n = in.read(chunk); n >= 0; n = in.read(chunk))
+				out.write(chunk, 0, n);
+
+			return ByteBuffer.wrap(out.toByteArray());
+		}
+	}
+
+	/**
+	 * Solves or trains every agent with its default parameters and writes its
+	 * resources.
+	 *
+	 * @param a the directory to write to, {@link #DIRECTORY} if there is none
+	 * @throws IOException
+	 */
+	public static void main(String a[]) throws IOException {
+		String directory = a.length > 0 ? a[0] : DIRECTORY;
+		new File(directory).mkdirs();
+
+		ValueIterationAgent vi = new ValueIterationAgent(new TTTMDP(), 0.9);
+		vi.train();
+		write(vi, directory);
+		vi.saveCheckpoint(directory + "/" + vi.getClass().getSimpleName() + ".values");
+
+		RandomSource.seed(SEED); // ties between equally good actions depend on the initial policy
+		PolicyIterationAgent pi = new PolicyIterationAgent(new TTTMDP(), 0.9);
+		pi.train();
+		write(pi, directory);
+		pi.saveCheckpoint(directory + "/" + pi.getClass().getSimpleName() + ".values");
+
+		RandomSource.seed(SEED);
+		QLearningAgent ql = new QLearningAgent(new TTTEnvironment(), 0.1, 40000, 0.9);
+		ql.train();
+		write(ql, directory);
+	}
+
+	private static void write(Agent agent, String directory) throws IOException {
+		String file = directory + "/" + agent.getPolicyFile();
+		PolicyFile.save(agent.getPolicy(), agent.getParameters(), file);
+		System.out.println("Wrote " + file + " for " + agent.getParameters());
+	}
+
+}
@@ -1,10 +1,16 @@
 package ticTacToe;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * A Q-Learning agent with a Q-Table, i.e. a table of Q-Values. This table is implemented in the {@link QTable} class.
@@ -42,6 +48,14 @@ public class QLearningAgent extends Agent {
 	 */
 	double epsilon=0.1;
 	
+	/**
+	 * How epsilon decays during training, from {@link #epsilon} down to {@link #finalEpsilon} at the end of training. 
+	 * Constant by default.
+	 */
+	EpsilonGreedyPolicy.Decay decay=EpsilonGreedyPolicy.Decay.CONSTANT;
+	
+	double finalEpsilon=0.1;
+	
 	/**
 	 * This is the Q-Table. To get an value for an (s,a) pair, i.e. a (game, move) pair.
 	 * 
@@ -57,6 +71,55 @@ public class QLearningAgent extends Agent {
 	 */
 	TTTEnvironment env=new TTTEnvironment();
 	
+	/**
+	 * The number of threads training at the same time. With more than one, each thread plays its share of the episodes
+	 * in its own environment, and all threads update the same q-table without locks (see {@link AtomicQTable}).
+	 */
+	int parallelism=1;
+	
+	/**
+	 * The random numbers used for exploration, null to use those of the current thread (see {@link RandomSource}). With
+	 * parallel training, every worker gets a generator split from this one.
+	 */
+	SplittableRandom random;
+	
+	/**
+	 * The number of transitions kept for experience replay, 0 (the default) for no replay. See 
+	 * {@link #setReplay(int, int, double)}.
+	 */
+	int replayCapacity=0;
+	
+	/**
+	 * The number of transitions replayed together.
+	 */
+	int batchSize=32;
+	
+	/**
+	 * The average number of replayed updates per transition played.
+	 */
+	double replayRatio=4.0;
+	
+	/**
+	 * The number of episodes the q-table has been trained for, including those of a restored checkpoint.
+	 */
+	int episodesDone=0;
+	
+	/**
+	 * How often sequential training reports its progress, in episodes
+	 */
+	static final int PROGRESS_INTERVAL=1000;
+	
+	/**
+	 * Where to save checkpoints during training, null (the default) for no checkpoints. See 
+	 * {@link #setCheckpointing(String, int)}.
+	 */
+	String checkpointFile=null;
+	
+	/**
+	 * The number of episodes between two checkpoints.
+	 */
+	int checkpointInterval=10000;
+	
 	
 	/**
 	 * Construct a Q-Learning agent that learns from interactions with {@code opponent}.
@@ -66,12 +129,49 @@ public class QLearningAgent extends Agent {
 	 */
 	public QLearningAgent(Agent opponent, double learningRate, int numEpisodes, double discount)
 	{
-		env=new TTTEnvironment(opponent);
+		this(new TTTEnvironment(opponent), learningRate, numEpisodes, discount);
+		train();
+	}
+	
+	/**
+	 * An agent that learns in {@code env}, and has not been trained yet, e.g. to be trained in the background by 
+	 * {@link AsyncAgent#train(Agent, java.util.concurrent.Executor)}
+	 */
+	public QLearningAgent(TTTEnvironment env, double learningRate, int numEpisodes, double discount)
+	{
+		this.env=env;
 		this.alpha=learningRate;
 		this.numEpisodes=numEpisodes;
 		this.discount=discount;
 		initQTable();
-		train();
+	}
+	
+	/**
+	 * Like {@link #QLearningAgent()}, but uses the presolved policy (see {@link PresolvedPolicies}) instead of 
+	 * training when there is one.
+	 * @return a trained agent
+	 */
+	public static QLearningAgent newInstance()
+	{
+		return newInstance(new RandomAgent(), 0.1, 40000, 0.9);
+	}
+	
+	/**
+	 * Like {@link #QLearningAgent(Agent, double, int, double)}, but uses the presolved policy (see 
+	 * {@link PresolvedPolicies}) instead of training if it was learned against a {@link RandomAgent} with the same 
+	 * parameters. The q-table of the agent is then empty.
+	 * @return a trained agent
+	 */
+	public static QLearningAgent newInstance(Agent opponent, double learningRate, int numEpisodes, double discount)
+	{
+		QLearningAgent agent=new QLearningAgent(new TTTEnvironment(opponent), learningRate, numEpisodes, discount);
+		MappedPolicy policy=(opponent.getClass()==RandomAgent.class) ? PresolvedPolicies.policy(agent.getParameters()) : null;
+		if (policy!=null)
+			agent.policy=policy;
+		else
+			agent.train();
+		
+		return agent;
 	}
 	
 	/**
@@ -81,18 +181,7 @@ public class QLearningAgent extends Agent {
 	
 	protected void initQTable()
 	{
-		List<Game> allGames=Game.generateAllValidGames('X');//all valid games where it is X's turn, or it's terminal.
-		for(Game g: allGames)
-		{
-			List<Move> moves=g.getPossibleMoves();
-			for(Move m: moves)
-			{
-				this.qTable.addQValue(g, m, 0.0);
-				//System.out.println("initing q value. Game:"+g);
-				//System.out.println("Move:"+m);
-			}
-			
-		}
+		this.qTable=new QTable();
 		
 	}
 	
@@ -117,43 +206,53 @@ public class QLearningAgent extends Agent {
 	
 	public void train()
 	{
-		int episodes = 0;
-		
-		// loop for the set number of episodes
-	    while (episodes < numEpisodes) {
-	    	env.reset();
-	        Game currentState = env.getCurrentGameState();
-
-	        while (!currentState.isTerminal()) {
-	        	List<Move> possibleMoves = currentState.getPossibleMoves();
-	            Move selectedMove;
-
-	            if (Math.random() < epsilon) {
-	                // Exploration: choose a random move
-	            	int moveIndex = (int) (Math.random() * possibleMoves.size());
-	                selectedMove = possibleMoves.get(moveIndex);
-	            } else {
-	                // Exploitation: choose the best move based on the Q-values
-	                Map<Move, Double> qValues = getQValuesForAllMoves(currentState);
-	                selectedMove = Collections.max(qValues.entrySet(), Map.Entry.comparingByValue()).getKey();
-	            }
-
-	            Outcome outcome = null;
-	            try {
-	                outcome = env.executeMove(selectedMove);
-	            } catch (IllegalMoveException e) {
-	                e.printStackTrace();
-	            }
-
-	            // Update Q-value based on the outcome
-	            updateQValue(currentState, selectedMove, outcome);
-
-	            // Move to the next state
-	            currentState = outcome.sPrime;
-	        }
-
-	        episodes++;
-	    }
+		train(numEpisodes);
+	}
+	
+	/**
+	 * Trains for {@code episodes} more episodes, saving a checkpoint every {@link #checkpointInterval} episodes if 
+	 * checkpointing is on, and sets the policy. Progress is reported every {@link #PROGRESS_INTERVAL} episodes, or 
+	 * once at the end when training in parallel.
+	 * @param episodes
+	 * @throws CancellationException if the training thread, or a worker, was interrupted. The episodes of the run are 
+	 * then not counted and no checkpoint is saved for them, so the run can be resumed from the last checkpoint; the 
+	 * q-table is left as it was after parallel training, and partly updated after sequential training.
+	 */
+	private void train(int episodes)
+	{
+		if (parallelism > 1)
+			trainInParallel(episodes);
+		else {
+			// epsilon decays over the whole run, which may have been resumed
+			EpsilonGreedyPolicy explorer = new EpsilonGreedyPolicy(qTable, epsilon, finalEpsilon, decay, Math.max(1, numEpisodes));
+			explorer.episodes = episodesDone;
+			// a copy, as the worker switches its environment to reusing outcomes
+			Worker worker = new Worker(new TTTEnvironment(env), qTable, explorer, random());
+			
+			// with a generator of its own, the opponent draws from it too, like the workers of parallel training
+			SplittableRandom caller = RandomSource.current();
+			if (random != null)
+				RandomSource.use(random.split());
+			try {
+				int untilCheckpoint = checkpointInterval;
+				while (episodes > 0) {
+					int chunk = Math.min(episodes, PROGRESS_INTERVAL);
+					if (checkpointFile != null)
+						chunk = Math.min(chunk, untilCheckpoint);
+					worker.play(chunk);
+					episodes -= chunk;
+					episodesDone += chunk;
+					reportProgress(episodesDone, numEpisodes);
+					untilCheckpoint -= chunk;
+					if (checkpointFile != null && (untilCheckpoint == 0 || episodes == 0)) {
+						checkpoint();
+						untilCheckpoint = checkpointInterval;
+					}
+				}
+			} finally {
+				RandomSource.use(caller);
+			}
+		}
 
 		//--------------------------------------------------------
 		//you shouldn't need to delete the following lines of code.
@@ -166,61 +265,314 @@ public class QLearningAgent extends Agent {
 	}
 	
 	/**
-	 * Helper method that retrieves the Q-values for all possible moves in the given state.
-	 *
-	 * @param state the current state for which Q-values of all possible moves are required.
-	 * @return a HashMap containing each possible move as a key and its corresponding Q-value as the value.
+	 * Hogwild-style training: {@link #parallelism} workers, each with its own environment and random numbers, share 
+	 * the {@code episodes} episodes and update one {@link AtomicQTable} without locks. The learned q-values are 
+	 * copied back to {@link #qTable} when all workers are done, and not if training was interrupted.
+	 * @param episodes
 	 */
-	private HashMap<Move, Double> getQValuesForAllMoves(Game state) {
-		HashMap<Move, Double> allMoves = new HashMap<>();  // Initialize a HashMap to store Q-values for all moves
+	private void trainInParallel(int episodes)
+	{
+		AtomicQTable shared = new AtomicQTable(qTable);
+		SplittableRandom random = random();
+		List<Worker> workers = new ArrayList<Worker>();
+		for (int w = 0; w < parallelism; w++) {
+			int share = episodes / parallelism + (w < episodes % parallelism ? 1 : 0);
+			// every worker decays epsilon over its share of the whole run, which may have been resumed
+			EpsilonGreedyPolicy explorer = new EpsilonGreedyPolicy(shared, epsilon, finalEpsilon, decay, Math.max(1, numEpisodes / parallelism));
+			explorer.episodes = episodesDone / parallelism;
+			workers.add(new Worker(new TTTEnvironment(env), shared, explorer, random.split(), share));
+		}
 
-	    if (state.isTerminal()) return allMoves; // if state is empty return an empty hashmap
-	    
+		ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+		try {
+			for (Future<Void> done : pool.invokeAll(workers)) // cancels the workers if interrupted
+				done.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			CancellationException cancelled = new CancellationException("Training interrupted");
+			cancelled.initCause(e);
+			throw cancelled;
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof CancellationException)
+				throw (CancellationException) e.getCause();
+			throw new RuntimeException("Training worker failed", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+		shared.copyTo(qTable);
+		episodesDone += episodes;
+		reportProgress(episodesDone, numEpisodes);
+		if (checkpointFile != null)
+			checkpoint();
+	}
+	
+	/**
+	 * Plays episodes in its own environment and updates a q-table: the whole training when training sequentially, 
+	 * or one thread's share of the episodes with {@link QLearningAgent#trainInParallel(int)}.
+	 */
+	private class Worker implements Callable<Void> {
+		
+		final TTTEnvironment env;
+		final AbstractQTable table;
+		final EpsilonGreedyPolicy explorer;
+		final SplittableRandom random;
+		final ReplayBuffer buffer;
+		final int[] batch;
+		double replayBudget = 0; // replayed updates owed
+		
+		/**
+		 * the episodes to play when called
+		 */
+		final int episodes;
+		
+		Worker(TTTEnvironment env, AbstractQTable table, EpsilonGreedyPolicy explorer, SplittableRandom random) {
+			this(env, table, explorer, random, 0);
+		}
+		
+		Worker(TTTEnvironment env, AbstractQTable table, EpsilonGreedyPolicy explorer, SplittableRandom random, int episodes) {
+			this.env = env;
+			this.table = table;
+			this.explorer = explorer;
+			this.random = random;
+			this.episodes = episodes;
+			this.buffer = (replayCapacity > 0) ? new ReplayBuffer(replayCapacity) : null;
+			this.batch = new int[batchSize];
+			explorer.setRandom(random);
+			env.setReuseOutcomes(true); // outcomes are only used until the next move
+		}
+		
+		@Override
+		public Void call() {
+			RandomSource.use(random.split()); // for the opponent
+			play(episodes);
+			return null;
+		}
+		
+		/**
+		 * Plays {@code episodes} episodes, updating the q-values of {@link #table}.
+		 * @param episodes
+		 * @throws CancellationException if the thread is interrupted, checked before every episode
+		 */
+		void play(int episodes) {
+			// loop for the set number of episodes
+		    for (int episode = 0; episode < episodes; episode++) {
+		    	if (Thread.currentThread().isInterrupted())
+		    		throw new CancellationException("Training interrupted");
+		    	env.reset();
+		        Game currentState = env.getCurrentGameState();
 
-	    List<Move> moves = state.getPossibleMoves();  // Retrieve all possible moves from the current state
-	    
-	    // Loop through each move and populates the hash map with its respect Q-value
-	    int i = 0;
-	    while (i < moves.size()) {
-	    	Move move = moves.get(i);
-	        allMoves.put(move, qTable.getQValue(state, move));
-	        i++;
-	    }
-	    return allMoves;
+		        while (!currentState.isTerminal()) {
+		        	// explore with probability epsilon, otherwise exploit the best move based on the Q-values
+		            Move selectedMove = Move.of('X', explorer.selectCell(currentState));
+
+		            Outcome outcome = null;
+		            try {
+		                outcome = env.executeMove(selectedMove);
+		            } catch (IllegalMoveException e) {
+		                e.printStackTrace();
+		            }
+
+		            // Update Q-value based on the outcome
+		            updateQValue(table, outcome, buffer);
+		            
+		            // Replay past transitions, a mini-batch at a time
+		            if (buffer != null) {
+		            	replayBudget += replayRatio;
+		            	for (; replayBudget >= batch.length; replayBudget -= batch.length)
+		            		replay(table, buffer, batch, random);
+		            }
+
+		            // Move to the next state
+		            currentState = outcome.sPrime;
+		        }
+		        explorer.endEpisode();
+		    }
+		}
+	}
+	
+	/**
+	 * Saves a checkpoint in {@link #checkpointFile}.
+	 */
+	private void checkpoint()
+	{
+		try {
+			saveCheckpoint(checkpointFile);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Saves the q-values, with the hyperparameters (see {@link #getParameters()}) and the number of episodes trained 
+	 * for so far, so that training can be resumed with {@link #resume(String)}.
+	 * @param file
+	 * @throws IOException
+	 */
+	public void saveCheckpoint(String file) throws IOException
+	{
+		Checkpoint.save(file, Checkpoint.Kind.Q_VALUES, getParameters(), episodesDone, Double.NaN, qTable.values);
+	}
+	
+	/**
+	 * Restores the q-values saved by {@link #saveCheckpoint(String)}, the number of episodes they were trained for, 
+	 * and the learning rate, discount factor and number of episodes of the training run. The next call to 
+	 * {@link #train()} continues learning from the restored q-values (a warm start).
+	 * @param file
+	 * @throws IOException
+	 * @throws IllegalArgumentException if the checkpoint is not of a q-learning agent, or was learned with other 
+	 * rewards than those of this agent's environment
+	 */
+	public void restoreCheckpoint(String file) throws IOException
+	{
+		Checkpoint checkpoint = Checkpoint.load(file);
+		SolverParameters saved = checkpoint.getParameters();
+		SolverParameters mine = getParameters();
+		if (!saved.solver.equals(mine.solver) || saved.winReward != mine.winReward || saved.loseReward != mine.loseReward
+				|| saved.livingReward != mine.livingReward || saved.drawReward != mine.drawReward)
+			throw new IllegalArgumentException("Checkpoint of " + saved + " does not match " + mine);
+		
+		QTable table = new QTable();
+		checkpoint.copyTo(Checkpoint.Kind.Q_VALUES, table.values);
+		
+		this.qTable = table;
+		this.episodesDone = (int) checkpoint.getProgress();
+		this.alpha = checkpoint.getParameters().learningRate;
+		this.discount = checkpoint.getParameters().discount;
+		this.numEpisodes = checkpoint.getParameters().episodes;
+		this.policy = extractPolicy();
+	}
+	
+	/**
+	 * Resumes an interrupted training run from its checkpoint: restores it (see {@link #restoreCheckpoint(String)}) and 
+	 * trains for the episodes that were left.
+	 * @param file
+	 * @throws IOException
+	 */
+	public void resume(String file) throws IOException
+	{
+		restoreCheckpoint(file);
+		train(Math.max(0, numEpisodes - episodesDone));
+	}
+	
+	/**
+	 * Turns on checkpointing: while training, a checkpoint is saved in {@code file} every {@code interval} episodes 
+	 * (with parallel training, once at the end), so that an interrupted run can be resumed with {@link #resume(String)}.
+	 * @param file the checkpoint file, null to turn checkpointing off (the default)
+	 * @param interval
+	 */
+	public void setCheckpointing(String file, int interval)
+	{
+		if (interval < 1)
+			throw new IllegalArgumentException("interval should be at least 1");
+		
+		this.checkpointFile = file;
+		this.checkpointInterval = interval;
+	}
+	
+	/**
+	 * Makes epsilon decay during training, from {@link #epsilon} at the first episode to {@code finalEpsilon} at the 
+	 * last one (see {@link EpsilonGreedyPolicy}). With parallel training, epsilon decays over each worker's share of 
+	 * the episodes.
+	 * @param decay
+	 * @param finalEpsilon
+	 */
+	public void setEpsilonDecay(EpsilonGreedyPolicy.Decay decay, double finalEpsilon)
+	{
+		this.decay = decay;
+		this.finalEpsilon = finalEpsilon;
+	}
+	
+	/**
+	 * Gives this agent its own random numbers for exploration, e.g. to make training reproducible. While training, the 
+	 * opponent draws from a generator split from this one. By default both use those of the thread training the agent 
+	 * (see {@link RandomSource}).
+	 * @param random the generator, or null to use the current thread's
+	 */
+	public void setRandom(SplittableRandom random)
+	{
+		this.random = random;
+	}
+	
+	/**
+	 * 
+	 * @return the random numbers to use for exploration
+	 */
+	private SplittableRandom random()
+	{
+		return random != null ? random : RandomSource.current();
+	}
+	
+	/**
+	 * 
+	 * @param parallelism the number of threads training at the same time, 1 (the default) to train sequentially. 
+	 */
+	public void setParallelism(int parallelism)
+	{
+		if (parallelism < 1)
+			throw new IllegalArgumentException("parallelism should be at least 1");
+		
+		this.parallelism = parallelism;
 	}
 	
 	/**
 	 * Helper method that updates the Q-value for a given state and move based on the outcome of the move.
 	 *
-	 * @param currentState the current state where the move was taken.
-	 * @param selectedMove the move taken in the current state.
-	 * @param outcome the outcome object containing the move's result, including the next state and reward.
+	 * @param table the q-table to update
+	 * @param outcome the outcome object containing the source state, the move taken, the move's result, including the next state and reward.
+	 * @param buffer the replay buffer to record the transition in, null if there is none
 	 */
-	private void updateQValue(Game currentState, Move selectedMove, Outcome outcome) {
-		double qVal = qTable.getQValue(outcome.s, outcome.move); // the current Q-value for the state-move pair
+	private void updateQValue(AbstractQTable table, Outcome outcome, ReplayBuffer buffer) {
+		StateIndex index = StateIndex.get();
+		int state = index.canonicalId(outcome.sId); // the q-state in the table's (canonical) frame
+		int cell = Symmetry.cell(index.symmetry(outcome.sId), outcome.move.getCell());
+		int next = index.canonicalId(outcome.sPrimeId);
+		boolean terminal = outcome.sPrime.isTerminal();
 	    
-	    double argMaxNextQVal = 0.0; // To store the max q value of the next state i.e Q(s', a')
+		update(table, state, cell, outcome.localReward, next, terminal);
+		if (buffer != null)
+			buffer.add(state, cell, outcome.localReward, next, terminal);
+	}
+	
+	/**
+	 * The Q-learning update of one (canonical) transition.
+	 */
+	private void update(AbstractQTable table, int state, int cell, double reward, int next, boolean terminal) {
+		double qVal = table.get(state, cell); // the current Q-value for the state-move pair
 	    
-	    // If the next state is not terminal, calculate the maximum Q-value for all possible moves in the next state
-	    if (!outcome.sPrime.isTerminal()) {
-	    	double maxQForNextState = -Double.MAX_VALUE;
-	    	
-	    	// Retrieve all possible moves in the next state
-	        List<Move> nextPossibleMoves = outcome.sPrime.getPossibleMoves();
-	        
-	        int i = 0;
-	        // Iterate through each move and find the maximum Q-value
-	        while (i < nextPossibleMoves.size()) {
-	        	Move nextMove = nextPossibleMoves.get(i);
-	            double nextQ = qTable.getQValue(outcome.sPrime, nextMove); // Get the Q-value for the next move
-	            maxQForNextState = Math.max(maxQForNextState, nextQ); // Update the max Q-Value
-	            i++;
-	        }
-	        argMaxNextQVal = maxQForNextState; // Store the maximum Q-value for the next state
-	    }
+	    // the max q value of the next state i.e Q(s', a'), 0 if it is terminal
+	    double argMaxNextQVal = terminal ? 0.0 : table.maxQValue(next);
 	    
-	    double updatedQ = (1 - alpha) * qVal + alpha * (outcome.localReward + discount * argMaxNextQVal); // Q value calculation
-	    qTable.addQValue(outcome.s, outcome.move, updatedQ); // Add the updated Q-value to the Q-table
+	    double updatedQ = (1 - alpha) * qVal + alpha * (reward + discount * argMaxNextQVal); // Q value calculation
+	    table.set(state, cell, updatedQ); // Store the updated Q-value in the Q-table
+	}
+	
+	/**
+	 * Samples a mini-batch of {@code batch.length} transitions from {@code buffer} and applies their updates to 
+	 * {@code table}.
+	 */
+	private void replay(AbstractQTable table, ReplayBuffer buffer, int[] batch, SplittableRandom random) {
+		buffer.sample(batch, random);
+		for (int record : batch)
+			update(table, buffer.state(record), buffer.cell(record), buffer.reward(record), buffer.next(record), buffer.isTerminal(record));
+	}
+	
+	/**
+	 * Turns on experience replay: every transition played is also stored in a {@link ReplayBuffer} of 
+	 * {@code capacity} transitions, and on top of the update from the latest transition, past transitions are replayed 
+	 * in mini-batches of {@code batchSize}, {@code replayRatio} replayed updates per transition played on average. 
+	 * With parallel training, each thread has its own buffer.
+	 * @param capacity the number of transitions kept, 0 to turn replay off (the default)
+	 * @param batchSize
+	 * @param replayRatio
+	 */
+	public void setReplay(int capacity, int batchSize, double replayRatio)
+	{
+		if (capacity < 0 || batchSize < 1 || replayRatio <= 0)
+			throw new IllegalArgumentException("capacity should be at least 0, batchSize at least 1 and replayRatio positive");
+		
+		this.replayCapacity = capacity;
+		this.batchSize = batchSize;
+		this.replayRatio = replayRatio;
 	}
 	
 	/** Implement this method. It should use the q-values in the {@code qTable} to extract a policy and return it.
@@ -230,19 +582,29 @@ public class QLearningAgent extends Agent {
 	public Policy extractPolicy()
 	{
 		Policy extractedPolicy = new Policy(); // Policy Initialization
+		StateIndex index = StateIndex.get();
 		
-		// loop through all states
-	    for (Game state : qTable.keySet()) {
-	        if (state.isTerminal()) continue; // skip terminal states
+		// loop through all canonical states where X is to move
+	    for (int id = 0; id < index.size(); id++) {
+	    	Game state = index.game(id);
+	        if (!index.isCanonical(id) || state.isTerminal() || state.whoseTurn.getName() != 'X') continue; // skip terminal states
 	        
 	        // The optimal is the one with the highest Q-Value for the current state
-	        Move optimalMove = Collections.max(getQValuesForAllMoves(state).entrySet(), Map.Entry.comparingByValue()).getKey();
-	        extractedPolicy.policy.put(state, optimalMove); // Add the state and its optimal move to the extracted policy
+	        extractedPolicy.policy.put(state, Move.of('X', qTable.bestCell(id))); // Add the state and its optimal move to the extracted policy
 	    }
 
 	    return extractedPolicy; // policy containing the optimal actions for all non-terminal states
 	}
 	
+	/**
+	 * @return the discount factor, the rewards of the environment, the learning rate and number of episodes
+	 */
+	@Override
+	public SolverParameters getParameters()
+	{
+		return new SolverParameters(getClass().getSimpleName(), discount, env.winReward, env.loseReward, env.livingReward, env.drawReward, alpha, numEpisodes);
+	}
+	
 	public static void main(String a[]) throws IllegalMoveException
 	{
 		//Test method to play your agent against a human agent (yourself).
@@ -1,59 +1,40 @@
 package ticTacToe;
 
-import java.util.HashMap;
 /**
- * This class a simple implementation of a Q-Table. It's a subclass of {@link java.util.HashMap}, so all the methods from 
- * that class are available. Two methods for adding and retrieving q-values to/from the table are provided.
- * 
+ * This class a simple implementation of a Q-Table, backed by a single flat array of q-values with one entry per
+ * (state, cell) pair: the q-value of playing in cell {@code c} (3*x+y) in the state with {@link StateIndex} id {@code s}
+ * is at index {@code 9*s+c}. All q-values start at 0.
+ *
+ * Symmetric q-states share their q-value: only canonical states (see {@link Game#canonical()}) are stored, with moves
+ * in the frame of the canonical game. The primitive methods {@link #get(int, int)} and {@link #set(int, int, double)}
+ * expect a canonical state id and cell; the two methods taking a {@link Game} and a {@link Move} canonicalise them
+ * for you (see {@link AbstractQTable}).
+ *
  * @author ae187
  *
  */
-public class QTable extends HashMap<Game, HashMap<Move,Double>> {
+public class QTable extends AbstractQTable {
+
+	/**
+	 * the q-values, indexed by 9*canonical state id+canonical cell
+	 */
+	final double[] values;
 
-	
 	public QTable()
 	{
-		super();
+		values=new double[9*StateIndex.get().size()];
 	}
-	
-	/**
-	 * 
-	 */
-	private static final long serialVersionUID = 1L;
-	
-	/**
-	 * 
-	 * @param g
-	 * @param m
-	 * @return the q value associated with the q-state {@code (g,m)}, where game is a {@link Game} object 
-	 * and m is a {@link Move} object}
-	 */
-	public Double getQValue(Game g, Move m)
+
+	@Override
+	public double get(int state, int cell)
 	{
-		if (containsKey(g))
-		{
-			HashMap<Move,Double> moves=get(g);
-			if (moves.containsKey(m))
-				return moves.get(m);
-		}
-		
-		return null;
+		return values[9*state+cell];
 	}
-	
-	/**
-	 * Adds the q-value mapping (g,m)->v to the q-table represented by this map.
-	 * @param g
-	 * @param m
-	 * @param v
-	 */
-	public void addQValue(Game g, Move m, Double v)
+
+	@Override
+	public void set(int state, int cell, double v)
 	{
-		if (!containsKey(g))
-			this.put(g, new HashMap<Move,Double>());
-		
-		this.get(g).put(m, v);
+		values[9*state+cell]=v;
 	}
-	
-	
 
 }
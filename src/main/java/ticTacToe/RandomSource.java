@@ -0,0 +1,57 @@
+package ticTacToe;
+
+import java.util.SplittableRandom;
+
+/**
+ * The random numbers used by the stochastic parts of the project (random policies, exploration, random initial
+ * policies...), so that runs can be made reproducible with a seed, and threads do not contend on a shared generator like
+ * {@code Math.random()} does.
+ *
+ * Every thread has its own {@link SplittableRandom}, given by {@link #current()}. Components that are not given a
+ * generator of their own (e.g. with {@link Policy#setRandom(SplittableRandom)}) draw from it. A thread starts with an
+ * unseeded generator; {@link #seed(long)} makes everything that thread does afterwards reproducible, and a thread that
+ * starts other threads (e.g. {@link QLearningAgent} training in parallel) hands each of them a generator
+ * {@link SplittableRandom#split() split} from its own.
+ *
+ * @author ae187
+ *
+ */
+public final class RandomSource {
+
+	private static final ThreadLocal<SplittableRandom> CURRENT = new ThreadLocal<SplittableRandom>() {
+		@Override
+		protected SplittableRandom initialValue() {
+			return new SplittableRandom();
+		}
+	};
+
+	private RandomSource() {
+	}
+
+	/**
+	 *
+	 * @return the generator of the current thread
+	 */
+	public static SplittableRandom current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Gives the current thread a new generator seeded with {@code seed}.
+	 *
+	 * @param seed
+	 */
+	public static void seed(long seed) {
+		CURRENT.set(new SplittableRandom(seed));
+	}
+
+	/**
+	 * Makes {@code random} the generator of the current thread.
+	 *
+	 * @param random
+	 */
+	public static void use(SplittableRandom random) {
+		CURRENT.set(random);
+	}
+
+}
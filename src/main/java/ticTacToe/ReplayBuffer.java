@@ -0,0 +1,119 @@
+package ticTacToe;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * A fixed-capacity ring buffer of transitions for experience replay in
+ * {@link QLearningAgent}. Each record is an (s,a,r,s') tuple like an
+ * {@link Outcome}, stored in primitive arrays: the canonical {@link StateIndex}
+ * id of the source state, the cell X played (in the frame of the canonical
+ * game), the reward, the canonical id of the next state and whether the next
+ * state is terminal. When the buffer is full, new records overwrite the oldest
+ * ones.
+ *
+ * A buffer is not thread safe: each training thread has its own.
+ *
+ * @author ae187
+ *
+ */
+public final class ReplayBuffer {
+
+	private final int[] states;
+	private final byte[] cells;
+	private final double[] rewards;
+	private final int[] nexts;
+	private final boolean[] terminal;
+
+	/**
+	 * where the next record goes
+	 */
+	private int head;
+
+	/**
+	 * the number of records in the buffer
+	 */
+	private int size;
+
+	/**
+	 * @param capacity the maximum number of records kept
+	 */
+	public ReplayBuffer(int capacity) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("capacity should be at least 1");
+
+		states = new int[capacity];
+		cells = new byte[capacity];
+		rewards = new double[capacity];
+		nexts = new int[capacity];
+		terminal = new boolean[capacity];
+	}
+
+	/**
+	 * Adds a record, overwriting the oldest one if the buffer is full.
+	 *
+	 * @param state    canonical id of the source state
+	 * @param cell     the cell played, in the frame of the canonical source state
+	 * @param reward
+	 * @param next     canonical id of the next state
+	 * @param terminal whether the next state is terminal
+	 */
+	public void add(int state, int cell, double reward, int next, boolean terminal) {
+		states[head] = state;
+		cells[head] = (byte) cell;
+		rewards[head] = reward;
+		nexts[head] = next;
+		this.terminal[head] = terminal;
+
+		head = (head + 1 == states.length) ? 0 : head + 1;
+		if (size < states.length)
+			size++;
+	}
+
+	/**
+	 * Fills {@code batch} with record indices drawn uniformly (with replacement)
+	 * from the buffer, in increasing order so that the records are read
+	 * sequentially.
+	 *
+	 * @param batch  the array to fill
+	 * @param random
+	 */
+	public void sample(int[] batch, SplittableRandom random) {
+		if (size == 0)
+			throw new IllegalStateException("The replay buffer is empty");
+
+		for (int i = 0; i < batch.length; i++)
+			batch[i] = random.nextInt(size);
+
+		Arrays.sort(batch);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int capacity() {
+		return states.length;
+	}
+
+	public int state(int record) {
+		return states[record];
+	}
+
+	public int cell(int record) {
+		return cells[record];
+	}
+
+	public double reward(int record) {
+		return rewards[record];
+	}
+
+	public int next(int record) {
+		return nexts[record];
+	}
+
+	public boolean isTerminal(int record) {
+		return terminal[record];
+	}
+
+}
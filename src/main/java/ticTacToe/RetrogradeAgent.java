@@ -0,0 +1,142 @@
+package ticTacToe;
+
+
+/**
+ * An agent that solves the {@link TTTMDP} exactly by backward induction (retrograde analysis), instead of iterating like
+ * {@link ValueIterationAgent} and {@link PolicyIterationAgent}.
+ *
+ * Every move adds a piece to the board, so the games form a DAG ordered by the number of pieces. The rows of the
+ * {@link CompiledTTTMDP} are ordered by decreasing number of pieces, so when a state is reached in that order all the
+ * states it can lead to already have their final values. A single pass from the full boards back to the empty board
+ * therefore gives the optimal values and the greedy policy; there is no iteration count or convergence threshold to tune.
+ *
+ * Like the other planning agents, this agent always plays 'X'.
+ * @author ae187
+ *
+ */
+public class RetrogradeAgent extends Agent {
+
+	/**
+	 * The optimal values of states, indexed by their {@link StateIndex} id. Only canonical states are set (see
+	 * {@link Game#canonical()}); terminal states have the value 0.
+	 */
+	double[] valueFunction=new double[StateIndex.get().size()];
+
+	/**
+	 * the discount factor
+	 */
+	double discount=0.9;
+
+	/**
+	 * the MDP model
+	 */
+	TTTMDP mdp;
+
+	/**
+	 * Solves the MDP with the default parameters (see {@link TTTMDP}) and a discount factor of 0.9.
+	 */
+	public RetrogradeAgent()
+	{
+		this(0.9);
+	}
+
+	/**
+	 * Use this constructor to initialise your agent with an existing policy
+	 * @param p
+	 */
+	public RetrogradeAgent(Policy p)
+	{
+		super(p);
+	}
+
+	public RetrogradeAgent(double discountFactor)
+	{
+		this.discount=discountFactor;
+		this.mdp=new TTTMDP();
+		solve();
+	}
+
+	public RetrogradeAgent(double discountFactor, double winReward, double loseReward, double livingReward, double drawReward)
+	{
+		this.discount=discountFactor;
+		this.mdp=new TTTMDP(winReward, loseReward, livingReward, drawReward);
+		solve();
+	}
+
+	/**
+	 * An agent for {@code mdp} that has not solved it yet, e.g. to be solved in the background by
+	 * {@link AsyncAgent#train(Agent, java.util.concurrent.Executor)}
+	 * @param mdp
+	 * @param discountFactor
+	 */
+	public RetrogradeAgent(TTTMDP mdp, double discountFactor)
+	{
+		this.mdp=mdp;
+		this.discount=discountFactor;
+	}
+
+	/**
+	 * Solves the MDP, see {@link #solve()}. There is a single pass, reported as done once it has finished.
+	 */
+	@Override
+	public void train()
+	{
+		solve();
+		reportProgress(1, 1);
+	}
+
+	/**
+	 * Computes the optimal value and move of every decision state in one pass over the compiled MDP, and sets the agent's
+	 * policy.
+	 */
+	public void solve()
+	{
+		CompiledTTTMDP model=mdp.compile();
+		StateIndex index=StateIndex.get();
+		Policy solved=new Policy();
+
+		for(int row=0;row<model.numRows();row++)
+		{
+			// all successors have more pieces, so their values are final already
+			int best=model.bestAction(row, valueFunction, discount);
+			valueFunction[model.state(row)]=model.qValue(best, valueFunction, discount);
+			solved.policy.put(index.game(model.state(row)), Move.of('X', model.cell(best)));
+		}
+
+		this.policy=solved;
+	}
+
+	/**
+	 *
+	 * @param g
+	 * @return the optimal value of {@code g}
+	 */
+	public double getValue(Game g)
+	{
+		StateIndex index=StateIndex.get();
+		return valueFunction[index.canonicalId(index.id(g))];
+	}
+
+	/**
+	 * @return the discount factor and the rewards of the MDP
+	 */
+	@Override
+	public SolverParameters getParameters()
+	{
+		if (mdp==null)
+			return super.getParameters();
+		
+		return new SolverParameters(getClass().getSimpleName(), discount, mdp.winReward, mdp.loseReward, mdp.livingReward, mdp.drawReward);
+	}
+	
+	public static void main(String a[]) throws IllegalMoveException
+	{
+		//Test method to play the agent against a human agent.
+		RetrogradeAgent agent=new RetrogradeAgent();
+		HumanAgent d=new HumanAgent();
+
+		Game g=new Game(agent, d, d);
+		g.playOut();
+	}
+
+}
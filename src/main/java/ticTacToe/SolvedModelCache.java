@@ -0,0 +1,214 @@
+package ticTacToe;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * A cache of solved MDPs, keyed by the {@link SolverParameters} of the solver
+ * (the agent class, discount factor and rewards), so that agents configured
+ * the same way solve the MDP only once per process (see
+ * {@link #shared()}). The cache holds at most {@link #getCapacity()} models,
+ * and evicts the least recently used one when it is full.
+ *
+ * The cache is thread-safe. A model is solved outside the lock, and threads
+ * asking for a model that is being solved wait for it instead of solving it
+ * again.
+ *
+ * @author ae187
+ *
+ */
+public final class SolvedModelCache {
+
+	/**
+	 * A solved MDP: the policy and the state values, both immutable and shared by
+	 * every agent that uses them.
+	 */
+	public static final class Model {
+
+		private final MappedPolicy policy;
+
+		private final Checkpoint values;
+
+		/**
+		 *
+		 * @param parameters the parameters the MDP was solved with
+		 * @param policy     the solved policy
+		 * @param progress   the iterations or rounds it took
+		 * @param residual   the last Bellman residual
+		 * @param values     the state values, indexed by {@link StateIndex} id;
+		 *                   copied
+		 */
+		public Model(SolverParameters parameters, Policy policy, long progress, double residual, double[] values) {
+			try {
+				this.policy = PolicyFile.read(PolicyFile.encode(policy, parameters).asReadOnlyBuffer(),
+						parameters.solver);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			this.values = Checkpoint.of(Checkpoint.Kind.STATE_VALUES, parameters, progress, residual, values);
+		}
+
+		/**
+		 *
+		 * @return the solved policy, which cannot be changed
+		 */
+		public MappedPolicy getPolicy() {
+			return policy;
+		}
+
+		/**
+		 *
+		 * @return the state values, with the parameters, iterations and residual
+		 *         of the solver; see {@link Checkpoint#copyTo}
+		 */
+		public Checkpoint getValues() {
+			return values;
+		}
+
+	}
+
+	/**
+	 * the capacity of {@link #shared()}
+	 */
+	public static final int DEFAULT_CAPACITY = 16;
+
+	private static final SolvedModelCache SHARED = new SolvedModelCache(DEFAULT_CAPACITY);
+
+	private final int capacity;
+
+	/**
+	 * in access order, so the first entry is the least recently used. Guarded by
+	 * this.
+	 */
+	private final LinkedHashMap<SolverParameters, CompletableFuture<Model>> models;
+
+	private long hits = 0;
+
+	private long misses = 0;
+
+	private long evictions = 0;
+
+	/**
+	 *
+	 * @param capacity the maximum number of models kept
+	 */
+	public SolvedModelCache(int capacity) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("capacity should be at least 1");
+
+		this.capacity = capacity;
+		this.models = new LinkedHashMap<SolverParameters, CompletableFuture<Model>>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<SolverParameters, CompletableFuture<Model>> eldest) {
+				if (size() <= SolvedModelCache.this.capacity)
+					return false;
+
+				evictions++;
+				return true;
+			}
+		};
+	}
+
+	/**
+	 *
+	 * @return the cache used by the agents
+	 */
+	public static SolvedModelCache shared() {
+		return SHARED;
+	}
+
+	/**
+	 * Returns the model solved with {@code parameters}, solving it with
+	 * {@code solver} if it is not in the cache.
+	 *
+	 * @param parameters the parameters of the solver
+	 * @param solver     solves the MDP; only called on a miss
+	 * @return the solved model
+	 * @throws RuntimeException whatever {@code solver} threw, in which case
+	 *                          nothing is cached
+	 */
+	public Model get(SolverParameters parameters, Supplier<Model> solver) {
+		CompletableFuture<Model> model;
+		boolean solve = false;
+		synchronized (this) {
+			model = models.get(parameters);
+			if (model == null) {
+				model = new CompletableFuture<Model>();
+				models.put(parameters, model);
+				misses++;
+				solve = true;
+			} else
+				hits++;
+		}
+
+		if (solve) {
+			try {
+				model.complete(solver.get());
+			} catch (RuntimeException | Error e) {
+				synchronized (this) {
+					models.remove(parameters, model);
+				}
+				model.completeExceptionally(e);
+				throw e;
+			}
+		}
+		return model.join();
+	}
+
+	/**
+	 * Removes all models. The statistics are kept.
+	 */
+	public synchronized void clear() {
+		models.clear();
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 *
+	 * @return the number of models in the cache, including those being solved
+	 */
+	public synchronized int size() {
+		return models.size();
+	}
+
+	/**
+	 *
+	 * @return the number of calls to {@link #get} that found their model
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 *
+	 * @return the number of calls to {@link #get} that had to solve their model
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 *
+	 * @return the number of models evicted to make room for others
+	 */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "SolvedModelCache(size=" + models.size() + "/" + capacity + ", hits=" + hits + ", misses=" + misses
+				+ ", evictions=" + evictions + ")";
+	}
+
+}
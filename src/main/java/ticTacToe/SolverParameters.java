@@ -0,0 +1,128 @@
+package ticTacToe;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The parameters a policy was solved or learned with: the solver (the simple
+ * class name of the agent, e.g. "ValueIterationAgent"), the discount factor,
+ * the rewards of the MDP or environment, and for learning agents the learning
+ * rate and number of episodes (0 for planning agents). Stored in the header of
+ * policy files (see {@link PolicyFile}) so that a stored policy is only used by
+ * an agent configured the same way.
+ *
+ * Instances are immutable.
+ *
+ * @author ae187
+ *
+ */
+public final class SolverParameters {
+
+	/**
+	 * The size of the solver name in the binary form, in bytes
+	 */
+	private static final int NAME_BYTES = 32;
+
+	/**
+	 * The size of the binary form written by {@link #write(ByteBuffer)}, in
+	 * bytes
+	 */
+	static final int BYTES = 6 * Double.BYTES + Integer.BYTES + NAME_BYTES;
+
+	public final String solver;
+	public final double discount;
+	public final double winReward;
+	public final double loseReward;
+	public final double livingReward;
+	public final double drawReward;
+	public final double learningRate;
+	public final int episodes;
+
+	/**
+	 * Parameters of a planning agent
+	 */
+	public SolverParameters(String solver, double discount, double winReward, double loseReward, double livingReward,
+			double drawReward) {
+		this(solver, discount, winReward, loseReward, livingReward, drawReward, 0, 0);
+	}
+
+	public SolverParameters(String solver, double discount, double winReward, double loseReward, double livingReward,
+			double drawReward, double learningRate, int episodes) {
+		if (solver.getBytes(StandardCharsets.US_ASCII).length > NAME_BYTES)
+			throw new IllegalArgumentException("Solver name too long: " + solver);
+
+		this.solver = solver;
+		this.discount = discount;
+		this.winReward = winReward;
+		this.loseReward = loseReward;
+		this.livingReward = livingReward;
+		this.drawReward = drawReward;
+		this.learningRate = learningRate;
+		this.episodes = episodes;
+	}
+
+	/**
+	 * Writes these parameters in {@link #BYTES} bytes at the position of
+	 * {@code buffer}
+	 *
+	 * @param buffer
+	 */
+	void write(ByteBuffer buffer) {
+		buffer.putDouble(discount).putDouble(winReward).putDouble(loseReward).putDouble(livingReward)
+				.putDouble(drawReward).putDouble(learningRate).putInt(episodes);
+		buffer.put(Arrays.copyOf(solver.getBytes(StandardCharsets.US_ASCII), NAME_BYTES));
+	}
+
+	/**
+	 * Reads parameters written by {@link #write(ByteBuffer)} at the position of
+	 * {@code buffer}
+	 *
+	 * @param buffer
+	 * @return
+	 */
+	static SolverParameters read(ByteBuffer buffer) {
+		double discount = buffer.getDouble();
+		double winReward = buffer.getDouble();
+		double loseReward = buffer.getDouble();
+		double livingReward = buffer.getDouble();
+		double drawReward = buffer.getDouble();
+		double learningRate = buffer.getDouble();
+		int episodes = buffer.getInt();
+
+		byte[] name = new byte[NAME_BYTES];
+		buffer.get(name);
+		int length = 0;
+		while (length < NAME_BYTES && name[length] != 0)
+			length++;
+
+		return new SolverParameters(new String(name, 0, length, StandardCharsets.US_ASCII), discount, winReward,
+				loseReward, livingReward, drawReward, learningRate, episodes);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof SolverParameters))
+			return false;
+
+		SolverParameters p = (SolverParameters) o;
+		return solver.equals(p.solver) && Double.compare(discount, p.discount) == 0
+				&& Double.compare(winReward, p.winReward) == 0 && Double.compare(loseReward, p.loseReward) == 0
+				&& Double.compare(livingReward, p.livingReward) == 0 && Double.compare(drawReward, p.drawReward) == 0
+				&& Double.compare(learningRate, p.learningRate) == 0 && episodes == p.episodes;
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(new double[] { discount, winReward, loseReward, livingReward, drawReward, learningRate,
+				episodes }) * 31 + solver.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return solver + "(discount=" + discount + ", win=" + winReward + ", lose=" + loseReward + ", living="
+				+ livingReward + ", draw=" + drawReward + ", learningRate=" + learningRate + ", episodes=" + episodes
+				+ ")";
+	}
+
+}
@@ -0,0 +1,193 @@
+package ticTacToe;
+
+import java.util.Arrays;
+
+/**
+ * A dense index over all valid Tic Tac Toe games (see {@link Game#isValid()}),
+ * built once and shared by everyone through {@link #get()}.
+ *
+ * Each valid game gets an integer id between 0 and {@link #size()}-1, in
+ * increasing order of {@link Game#hashCode()}. Going from a game (or its hash)
+ * to its id and back are both array lookups, so value functions, policies and
+ * q-tables can be stored in plain arrays indexed by id instead of maps keyed by
+ * {@link Game}.
+ *
+ * The index is immutable. The games returned by {@link #game(int)} are shared
+ * and must NOT be modified - copy them (e.g. with {@link Game#clone()}) first.
+ *
+ * @author ae187
+ *
+ */
+public final class StateIndex {
+
+	/**
+	 * The number of possible game hashes: 3^10, i.e. 9 cells and whose turn it is.
+	 */
+	static final int NUM_HASHES = 3 * Game.POW3[9];
+
+	/**
+	 * Built on first use, see {@link StateIndex#get()}.
+	 */
+	private static class Holder {
+		static final StateIndex INSTANCE = new StateIndex();
+	}
+
+	/**
+	 * id -> game
+	 */
+	private final Game[] games;
+
+	/**
+	 * id -> hash
+	 */
+	private final int[] hashes;
+
+	/**
+	 * hash -> id, or -1 if the hash is not that of a valid game
+	 */
+	private final int[] ids;
+
+	/**
+	 * id -> id of its canonical form, see {@link Game#canonical()}
+	 */
+	private final int[] canonicalIds;
+
+	/**
+	 * id -> the symmetry that takes the game to its canonical form
+	 */
+	private final byte[] symmetries;
+
+	private StateIndex() {
+		Game[] games = new Game[NUM_HASHES];
+		int[] hashes = new int[NUM_HASHES];
+		int[] ids = new int[NUM_HASHES];
+		Arrays.fill(ids, -1);
+
+		int n = 0;
+		for (int hash = 0; hash < NUM_HASHES; hash++) {
+			// only build the games that pass the counting test of Game#isValid
+			int turn = hash % 3;
+			if (turn == 0)
+				continue;
+
+			int xs = 0, os = 0;
+			int digits = hash / 3;
+			while (digits > 0) {
+				int digit = digits % 3;
+				digits /= 3;
+				if (digit == 1)
+					xs++;
+				else if (digit == 2)
+					os++;
+			}
+			if (Math.abs(xs - os) > 1 || (xs > os && turn == 1) || (xs < os && turn == 2))
+				continue;
+
+			Game g = Game.inverseHash(hash);
+			g.evaluateGameState();
+			games[n] = g;
+			hashes[n] = hash;
+			ids[hash] = n;
+			n++;
+		}
+
+		this.games = Arrays.copyOf(games, n);
+		this.hashes = Arrays.copyOf(hashes, n);
+		this.ids = ids;
+
+		this.canonicalIds = new int[n];
+		this.symmetries = new byte[n];
+		for (int id = 0; id < n; id++) {
+			Game g = this.games[id];
+			int t = Symmetry.canonicalising(g.xs, g.os);
+			int hash = Symmetry.code(Symmetry.mask(t, g.xs), Symmetry.mask(t, g.os)) + hashes[id] % 3;
+			this.symmetries[id] = (byte) t;
+			this.canonicalIds[id] = ids[hash];
+		}
+	}
+
+	/**
+	 *
+	 * @return the shared index over all valid games
+	 */
+	public static StateIndex get() {
+		return Holder.INSTANCE;
+	}
+
+	/**
+	 *
+	 * @return the number of valid games, i.e. one more than the largest id
+	 */
+	public int size() {
+		return games.length;
+	}
+
+	/**
+	 *
+	 * @param g
+	 * @return the id of {@code g}, or -1 if {@code g} is not a valid game
+	 */
+	public int id(Game g) {
+		return ids[g.hashCode()];
+	}
+
+	/**
+	 *
+	 * @param hash a game hash as returned by {@link Game#hashCode()}
+	 * @return the id of the game with that hash, or -1 if there is no such valid
+	 *         game
+	 */
+	public int idOfHash(int hash) {
+		if (hash < 0 || hash >= NUM_HASHES)
+			return -1;
+
+		return ids[hash];
+	}
+
+	/**
+	 *
+	 * @param id
+	 * @return the shared game with this id. Do not modify it.
+	 */
+	public Game game(int id) {
+		return games[id];
+	}
+
+	/**
+	 *
+	 * @param id
+	 * @return the hash of the game with this id
+	 */
+	public int hash(int id) {
+		return hashes[id];
+	}
+
+	/**
+	 *
+	 * @param id
+	 * @return the id of the canonical form of the game with this id
+	 */
+	public int canonicalId(int id) {
+		return canonicalIds[id];
+	}
+
+	/**
+	 *
+	 * @param id
+	 * @return true if the game with this id is in canonical form
+	 */
+	public boolean isCanonical(int id) {
+		return canonicalIds[id] == id;
+	}
+
+	/**
+	 *
+	 * @param id
+	 * @return the index of the {@link Symmetry} that takes the game with this id
+	 *         to its canonical form
+	 */
+	public int symmetry(int id) {
+		return symmetries[id];
+	}
+
+}
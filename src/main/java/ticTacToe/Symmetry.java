@@ -0,0 +1,141 @@
+package ticTacToe;
+
+/**
+ * The 8 symmetries of the 3x3 board (the dihedral group D4): the identity, the
+ * three rotations and the four reflections. Symmetric games have the same value
+ * and symmetric best moves, so tabular agents only need to store one
+ * representative of every class of symmetric games: the canonical one, see
+ * {@link Game#canonical()}.
+ *
+ * A symmetry is referred to by its index {@code t} between 0 and
+ * {@link #COUNT}-1, where 0 is the identity. It moves cell {@code c} (3*x+y) to
+ * cell {@link #cell(int, int)}.
+ *
+ * @author ae187
+ *
+ */
+public final class Symmetry {
+
+	/**
+	 * The number of symmetries
+	 */
+	public static final int COUNT = 8;
+
+	/**
+	 * the identity
+	 */
+	public static final int IDENTITY = 0;
+
+	/**
+	 * PERM[t][c] is the cell that symmetry t moves cell c to.
+	 */
+	private static final int[][] PERM = new int[COUNT][9];
+
+	/**
+	 * INVERSE[t] undoes symmetry t. The rotations by 90 and 270 degrees undo each
+	 * other, all other symmetries undo themselves.
+	 */
+	private static final int[] INVERSE = { 0, 3, 2, 1, 4, 5, 6, 7 };
+
+	/**
+	 * MASKS[t][mask] is {@code mask} with every cell moved by symmetry t.
+	 */
+	private static final int[][] MASKS = new int[COUNT][Game.FULL + 1];
+
+	/**
+	 * CODES[mask] is the base 3 board code (see {@link Game#hashCode()}) of a
+	 * board with an 'X' in every cell of {@code mask}, including the trailing turn
+	 * digit (which is 0).
+	 */
+	private static final int[] CODES = new int[Game.FULL + 1];
+
+	static {
+		for (int x = 0; x < 3; x++)
+			for (int y = 0; y < 3; y++) {
+				int c = 3 * x + y;
+				PERM[0][c] = c; // identity
+				PERM[1][c] = 3 * y + (2 - x); // rotate by 90
+				PERM[2][c] = 3 * (2 - x) + (2 - y); // rotate by 180
+				PERM[3][c] = 3 * (2 - y) + x; // rotate by 270
+				PERM[4][c] = 3 * (2 - x) + y; // flip top to bottom
+				PERM[5][c] = 3 * x + (2 - y); // flip left to right
+				PERM[6][c] = 3 * y + x; // flip on the main diagonal
+				PERM[7][c] = 3 * (2 - y) + (2 - x); // flip on the other diagonal
+			}
+
+		for (int mask = 0; mask <= Game.FULL; mask++) {
+			for (int c = 0; c < 9; c++)
+				if ((mask & (1 << c)) != 0) {
+					CODES[mask] += Game.POW3[9 - c];
+					for (int t = 0; t < COUNT; t++)
+						MASKS[t][mask] |= 1 << PERM[t][c];
+				}
+		}
+	}
+
+	private Symmetry() {
+	}
+
+	/**
+	 *
+	 * @param t
+	 * @param cell
+	 * @return the cell that symmetry {@code t} moves {@code cell} to
+	 */
+	public static int cell(int t, int cell) {
+		return PERM[t][cell];
+	}
+
+	/**
+	 *
+	 * @param t
+	 * @param mask a 9-bit board mask
+	 * @return {@code mask} with every cell moved by symmetry {@code t}
+	 */
+	public static int mask(int t, int mask) {
+		return MASKS[t][mask];
+	}
+
+	/**
+	 *
+	 * @param t
+	 * @return the symmetry that undoes {@code t}
+	 */
+	public static int inverse(int t) {
+		return INVERSE[t];
+	}
+
+	/**
+	 *
+	 * @param xs the X mask
+	 * @param os the O mask
+	 * @return the board part of the hash code of the game with these masks, see
+	 *         {@link Game#hashCode()}
+	 */
+	static int code(int xs, int os) {
+		return CODES[xs] + 2 * CODES[os];
+	}
+
+	/**
+	 * Finds the symmetry that takes the board given by {@code xs} and {@code os} to
+	 * its canonical form: the symmetric board with the smallest hash code. If
+	 * several symmetries do, the one with the smallest index is returned.
+	 *
+	 * @param xs the X mask
+	 * @param os the O mask
+	 * @return the index of the symmetry
+	 */
+	static int canonicalising(int xs, int os) {
+		int best = IDENTITY;
+		int bestCode = code(xs, os);
+		for (int t = 1; t < COUNT; t++) {
+			int code = code(MASKS[t][xs], MASKS[t][os]);
+			if (code < bestCode) {
+				bestCode = code;
+				best = t;
+			}
+		}
+		return best;
+	}
+
+}
@@ -27,6 +27,23 @@ public class TTTEnvironment {
 	double livingReward=-1.00;
 	double drawReward=0.0;
 	
+	/**
+	 * Whether {@link #executeMove} reuses {@link #outcome} and {@link #prev} instead of allocating a new {@link Outcome}
+	 * and source {@link Game} on every move, and {@link #reset()} resets {@link #game} in place.
+	 * See {@link #setReuseOutcomes(boolean)}.
+	 */
+	boolean reuseOutcomes=false;
+	
+	/**
+	 * The outcome returned by every move when {@link #reuseOutcomes} is on.
+	 */
+	Outcome outcome;
+	
+	/**
+	 * The source state of {@link #outcome}
+	 */
+	Game prev;
+	
 	
 	/**
 	 * By default, the environment contains an opponent that plays randomly, i.e. a {@link RandomAgent}; and uses all the
@@ -52,6 +69,15 @@ public class TTTEnvironment {
 		
 	}
 	
+	/**
+	 * A new environment with the same opponent and rewards as {@code env}, e.g. for another training thread.
+	 * @param env
+	 */
+	TTTEnvironment(TTTEnvironment env)
+	{
+		this(env.game.o, env.winReward, env.loseReward, env.livingReward, env.drawReward);
+	}
+	
 	public Game getCurrentGameState()
 	{
 		return game;
@@ -92,18 +118,25 @@ public class TTTEnvironment {
 			return null;
 		}
 		
-		Game prev=this.game.clone();
+		Game prev;
+		if (reuseOutcomes)
+		{
+			prev=this.prev;
+			prev.copyFrom(game);
+		}
+		else
+			prev=this.game.clone();
 		
 		game.executeMove(m);
 		
 		if (game.getState()==Game.X_WON)
 		{
-			return new Outcome(prev, m, this.winReward, game);
+			return outcome(prev, m, this.winReward);
 		}
 		else if (game.getState()==Game.DRAW)
 		{
 			//O couln't have won by X's move.
-			return new Outcome(prev, m, this.drawReward, game);
+			return outcome(prev, m, this.drawReward);
 		}
 		
 		//If we are here, the game is ongoing. So now it's the opponent's turn to play.
@@ -115,19 +148,32 @@ public class TTTEnvironment {
 		game.executeMove(oMove);
 		if (game.getState()==Game.O_WON)
 		{
-			return new Outcome(prev, m, this.loseReward, game);
+			return outcome(prev, m, this.loseReward);
 		}
 		else if (game.getState()==Game.DRAW)
 		{
 			//O couln't have won by X's move.
-			return new Outcome(prev, m, this.drawReward, game);
+			return outcome(prev, m, this.drawReward);
 		}
 		
 		
 		
 		
-		return new Outcome(prev,m,this.livingReward,game);
+		return outcome(prev,m,this.livingReward);
+		
+	}
+	
+	/**
+	 * 
+	 * @return the outcome (prev, m, reward, current game), in {@link #outcome} if it is reused
+	 */
+	private Outcome outcome(Game prev, Move m, double reward)
+	{
+		if (!reuseOutcomes)
+			return new Outcome(prev, m, reward, game);
 		
+		outcome.set(prev, m, reward, game);
+		return outcome;
 	}
 	
 	public boolean isTerminal()
@@ -137,11 +183,32 @@ public class TTTEnvironment {
 	
 	
 	/**
-	 * Resets current game state to a new game state (empty board)
+	 * Resets current game state to a new game state (empty board), against the same opponent. When outcomes are reused
+	 * the game is reset in place.
 	 */
 	public void reset()
 	{
-		this.game=new Game(new Agent(), new RandomAgent());
+		if (reuseOutcomes)
+			this.game.reset();
+		else
+			this.game=new Game(game.x, game.o);
+	}
+	
+	/**
+	 * Turns on (or off) the allocation-free mode: {@link #executeMove} then fills in and returns the same {@link Outcome} 
+	 * object every time, whose source state is a scratch {@link Game} that is overwritten by the next move, and whose
+	 * target state is the environment's game itself; {@link #reset()} resets that game in place. Use the outcome (e.g. 
+	 * its {@link Outcome#sId} and {@link Outcome#sPrimeId}) before the next move, and copy anything you need to keep.
+	 * @param reuseOutcomes
+	 */
+	public void setReuseOutcomes(boolean reuseOutcomes)
+	{
+		this.reuseOutcomes=reuseOutcomes;
+		if (reuseOutcomes && outcome==null)
+		{
+			outcome=new Outcome();
+			prev=new Game(game);
+		}
 	}
 	
 	
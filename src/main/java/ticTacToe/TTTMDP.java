@@ -26,6 +26,11 @@ public class TTTMDP {
 	double livingReward=-1.00;
 	double drawReward=0.0;
 	
+	/**
+	 * The compiled transition model, built by the first call to {@link #compile()}
+	 */
+	private CompiledTTTMDP compiled;
+	
 	public TTTMDP() {
 	
 		
@@ -99,9 +104,13 @@ public class TTTMDP {
 		//If we are here equal chance that the opponent will move into the available places.
 		//we generate simulate all these, and associate them with equal probability
 		
-		List<Game> nextPossibleStates=intermediate.getAllSuccessorGames();
-		for(Game game: nextPossibleStates)
+		int emptyCells=intermediate.emptyCells();
+		double prob=(double)1/Integer.bitCount(emptyCells);
+		for(; emptyCells!=0; emptyCells&=emptyCells-1)
 		{
+			Game game=intermediate.clone();
+			game.place('O', Integer.numberOfTrailingZeros(emptyCells));
+			
 			double reward;	
 			if(game.getState()==Game.O_WON)
 			{
@@ -120,7 +129,6 @@ public class TTTMDP {
 			}
 			
 			Outcome o=new Outcome(g, m, reward, game);
-			double prob=(double)1/nextPossibleStates.size();
 			
 			TransitionProb transProb=new TransitionProb(o, prob);
 			result.add(transProb);
@@ -137,6 +145,20 @@ public class TTTMDP {
 	
 	
 	
+	/**
+	 * Generates the transitions of every decision state and move of this MDP once, and stores them in a 
+	 * {@link CompiledTTTMDP}. Subsequent calls return the same object, so the rewards must not be changed after 
+	 * calling this method.
+	 * @return the compiled transition model of this MDP
+	 */
+	public synchronized CompiledTTTMDP compile()
+	{
+		if (compiled==null)
+			compiled=new CompiledTTTMDP(this);
+		
+		return compiled;
+	}
+	
 	public boolean isTerminal(Game g)
 	{
 		return g.isTerminal();
@@ -150,7 +172,7 @@ public class TTTMDP {
 		g.executeMove('X',0,1);
 		g.executeMove('O', 2,2);
 		
-		Move m=new Move('X', 0,2);
+		Move m=Move.of('X', 0,2);
 		
 		TTTMDP gm=new TTTMDP();
 		List<TransitionProb> tps=gm.generateTransitions(g, m);
@@ -1,11 +1,8 @@
 package ticTacToe;
 
-
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Map;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * A Value Iteration Agent, only very partially implemented. The methods to implement are: 
@@ -19,9 +16,25 @@ import java.util.Map;
 public class ValueIterationAgent extends Agent {
 
 	/**
-	 * This map is used to store the values of states
+	 * How {@link ValueIterationAgent#iterate} updates the values in a sweep over the states.
+	 */
+	public enum Update {
+		/**
+		 * Every new value is computed from the values of the previous sweep (double buffered).
+		 */
+		JACOBI,
+		/**
+		 * Values are updated in place, so later states in a sweep already see the new values of earlier ones. 
+		 */
+		GAUSS_SEIDEL
+	}
+	
+	/**
+	 * This array is used to store the values of states, indexed by their {@link StateIndex} id. Only canonical 
+	 * states are updated (see {@link Game#canonical()}), symmetric states having the same value; terminal states 
+	 * keep the value 0. Use {@link #getValue(Game)} to look up any state.
 	 */
-	Map<Game, Double> valueFunction=new HashMap<Game, Double>();
+	double[] valueFunction=new double[StateIndex.get().size()];
 	
 	/**
 	 * the discount factor
@@ -34,9 +47,36 @@ public class ValueIterationAgent extends Agent {
 	TTTMDP mdp=new TTTMDP();
 	
 	/**
-	 * the number of iterations to perform - feel free to change this/try out different numbers of iterations
+	 * the maximum number of iterations to perform
 	 */
-	int k=10;
+	int k=1000;
+	
+	/**
+	 * Value iteration stops as soon as the Bellman residual - the largest change of a value in a sweep - is below epsilon.
+	 */
+	double epsilon=1e-6;
+	
+	/**
+	 * Jacobi or Gauss-Seidel updates
+	 */
+	Update update=Update.GAUSS_SEIDEL;
+	
+	/**
+	 * The number of threads sweeping the states in parallel. With more than one thread, the states are split between 
+	 * them with fork/join and updates are always Jacobi (double buffered), so the result does not depend on the thread 
+	 * count or scheduling.
+	 */
+	int parallelism=1;
+	
+	/**
+	 * the number of iterations performed by the last call to {@link #iterate}
+	 */
+	int iterations=0;
+	
+	/**
+	 * the Bellman residual after the last call to {@link #iterate}
+	 */
+	double residual=Double.POSITIVE_INFINITY;
 	
 	
 	/**
@@ -48,7 +88,7 @@ public class ValueIterationAgent extends Agent {
 		mdp=new TTTMDP();
 		this.discount=0.9;
 		initValues();
-		train();
+		solve();
 	}
 	
 	
@@ -66,22 +106,18 @@ public class ValueIterationAgent extends Agent {
 		this.discount=discountFactor;
 		mdp=new TTTMDP();
 		initValues();
-		train();
+		solve();
 	}
 	
 	/**
-	 * Initialises the {@link ValueIterationAgent#valueFunction} map, and sets the initial value of all states to 0 
-	 * (V0 from the lectures). Uses {@link Game#inverseHash} and {@link Game#generateAllValidGames(char)} to do this. 
+	 * Initialises the {@link ValueIterationAgent#valueFunction} array, and sets the initial value of all states to 0 
+	 * (V0 from the lectures).
 	 * 
 	 */
 	public void initValues()
 	{
 		
-		List<Game> allGames=Game.generateAllValidGames('X');//all valid games where it is X's turn, or it's terminal.
-		for(Game g: allGames)
-			this.valueFunction.put(g, 0.0);
-		
-		
+		this.valueFunction=new double[StateIndex.get().size()];
 		
 	}
 	
@@ -94,107 +130,291 @@ public class ValueIterationAgent extends Agent {
 	}
 	
 	/**
-	 
+	 * An agent for {@code mdp} that has not been trained yet, e.g. to be trained in the background by 
+	 * {@link AsyncAgent#train(Agent, java.util.concurrent.Executor)}
+	 * @param mdp
+	 * @param discountFactor
+	 */
+	public ValueIterationAgent(TTTMDP mdp, double discountFactor)
+	{
+		this.mdp=mdp;
+		this.discount=discountFactor;
+	}
 	
-	/*
-	 * Performs {@link #k} value iteration steps. After running this method, the {@link ValueIterationAgent#valueFunction} map should contain
-	 * the (current) values of each reachable state. You should use the {@link TTTMDP} provided to do this.
-	 * 
+	/**
+	 * Like {@link #ValueIterationAgent()}, but uses the presolved policy and values (see {@link PresolvedPolicies}) 
+	 * instead of solving the MDP when there are some.
+	 * @return a trained agent
+	 */
+	public static ValueIterationAgent newInstance()
+	{
+		return newInstance(new ValueIterationAgent(new TTTMDP(), 0.9));
+	}
+	
+	/**
+	 * Like {@link #ValueIterationAgent(double, double, double, double, double)} followed by {@link #train()}, but uses the
+	 * presolved policy and values (see {@link PresolvedPolicies}) instead of solving the MDP if they were solved with 
+	 * the same parameters.
+	 * @return a trained agent
+	 */
+	public static ValueIterationAgent newInstance(double discountFactor, double winReward, double loseReward, double livingReward, double drawReward)
+	{
+		return newInstance(new ValueIterationAgent(new TTTMDP(winReward, loseReward, livingReward, drawReward), discountFactor));
+	}
+	
+	private static ValueIterationAgent newInstance(ValueIterationAgent agent)
+	{
+		MappedPolicy policy=PresolvedPolicies.policy(agent.getParameters());
+		Checkpoint values=PresolvedPolicies.values(agent.getParameters());
+		if (policy!=null && values!=null)
+			agent.use(policy, values);
+		else
+			agent.solve();
+		
+		return agent;
+	}
+	
+	/**
+	 * Performs value iteration sweeps over all decision states of the compiled {@link TTTMDP} until the Bellman residual is
+	 * below {@link #epsilon}, or {@link #k} sweeps have been done. After running this method, the 
+	 * {@link ValueIterationAgent#valueFunction} array contains the (current) values of each reachable state, and 
+	 * {@link #getIterations()} and {@link #getResidual()} tell how it went.
 	 *
 	 */
 	public void iterate()
 	{
-		int iteration = 0;
-	    double argMaxValue;
-	    
-	    // perform for k steps
-	    while (iteration < k) {
-	        Iterator<Game> stateIterator = this.valueFunction.keySet().iterator();
-	        
-	        // perform value iteration for all states
-	        while (stateIterator.hasNext()) {
-	        	argMaxValue = Double.NEGATIVE_INFINITY;
-	            Game state = stateIterator.next();
-	    
-	            if (state.isTerminal()) { // Skip terminal States
-	                this.valueFunction.put(state, 0.0);
-	                continue;
-	            }
-	    
-	            Iterator<Move> moveIterator = state.getPossibleMoves().iterator();
-	            // Calculate q values for all possible moves
-	            while (moveIterator.hasNext()) {
-	                Move move = moveIterator.next();  
-	                double qValue = calculateQValue(state, move);  
-	                argMaxValue = Math.max(argMaxValue, qValue); // Set V(s) value for the state
-	            }
-	            // value update: set the new value of the state
-	            this.valueFunction.put(state, argMaxValue);
-	        }
-	        iteration++;
-	    }
+		CompiledTTTMDP model = mdp.compile();
+		boolean jacobi = (update == Update.JACOBI || parallelism > 1);
+		double[] values = this.valueFunction;
+		// with Jacobi updates the new values go to a second buffer. Terminal states are 0 in both.
+		double[] newValues = jacobi ? new double[values.length] : values;
+		ForkJoinPool pool = (parallelism > 1) ? new ForkJoinPool(parallelism) : null;
+		
+		iterations = 0;
+		residual = Double.POSITIVE_INFINITY;
+		try {
+			while (iterations < k && residual >= epsilon) {
+				if (pool != null)
+					residual = pool.invoke(new Sweep(model, values, newValues, discount, 0, model.numRows()));
+				else
+					residual = sweep(model, values, newValues, discount, 0, model.numRows());
+				
+				if (jacobi) {
+					double[] tmp = values;
+					values = newValues;
+					newValues = tmp;
+				}
+				iterations++;
+				reportProgress(iterations, k);
+			}
+		} finally {
+			if (pool != null)
+				pool.shutdown();
+		}
+		this.valueFunction = values;
+	}
+	
+	/**
+	 * Backs up the decision states of rows {@code from} (inclusive) to {@code to} (exclusive).
+	 * @return the largest change of a value
+	 */
+	private static double sweep(CompiledTTTMDP model, double[] values, double[] newValues, double discount, int from, int to)
+	{
+		double residual = 0;
+		for (int row = from; row < to; row++) {
+			int s = model.state(row);
+			double v = model.maxQValue(row, values, discount);
+			residual = Math.max(residual, Math.abs(v - values[s]));
+			newValues[s] = v;
+		}
+		return residual;
+	}
+	
+	/**
+	 * A parallel Jacobi {@link ValueIterationAgent#sweep}: splits its rows in halves until there are at most 
+	 * {@link Sweep#CHUNK} left. Returns the residual of its rows.
+	 */
+	private static class Sweep extends RecursiveTask<Double> {
+		
+		private static final long serialVersionUID = 1L;
+		
+		static final int CHUNK = 128;
+		
+		final CompiledTTTMDP model;
+		final double[] values;
+		final double[] newValues;
+		final double discount;
+		final int from;
+		final int to;
+		
+		Sweep(CompiledTTTMDP model, double[] values, double[] newValues, double discount, int from, int to) {
+			this.model = model;
+			this.values = values;
+			this.newValues = newValues;
+			this.discount = discount;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected Double compute() {
+			if (to - from <= CHUNK)
+				return sweep(model, values, newValues, discount, from, to);
+			
+			int mid = (from + to) >>> 1;
+			Sweep left = new Sweep(model, values, newValues, discount, from, mid);
+			left.fork();
+			double right = new Sweep(model, values, newValues, discount, mid, to).compute();
+			return Math.max(left.join(), right);
+		}
+	}
+	
+	/**
+	 * Sets the number of threads used by {@link #iterate}; 1 (the default) sweeps in the calling thread.
+	 * @param parallelism
+	 */
+	public void setParallelism(int parallelism)
+	{
+		if (parallelism < 1)
+			throw new IllegalArgumentException("parallelism should be at least 1");
+		
+		this.parallelism = parallelism;
 	}
 	
 	/**This method should be run AFTER the train method to extract a policy according to {@link ValueIterationAgent#valueFunction}
-	 * You will need to do a single step of expectimax from each game (state) key in {@link ValueIterationAgent#valueFunction} 
-	 * to extract a policy.
+	 * It does a single step of expectimax from every decision state of the compiled {@link TTTMDP}.
 	 * 
 	 * @return the policy according to {@link ValueIterationAgent#valueFunction}
 	 */
 	public Policy extractPolicy()
 	{
 		Policy extractedPolicy = new Policy();
-	    Iterator<Game> stateIterator = valueFunction.keySet().iterator();
-
-	    while (stateIterator.hasNext()) {
-	    	Game state = stateIterator.next();
-
-	        if (state.isTerminal()) { // skip terminal states
-	            valueFunction.put(state, 0.0);
-	            continue;
-	        }
-	        // a map to store Q-values for all possible moves
-	        Map<Move, Double> moveQValues = new HashMap<>();
-
-	        Iterator<Move> moveIterator = state.getPossibleMoves().iterator();
-	        
-	        // Calculate Q-values for each possible move
-	        while (moveIterator.hasNext()) {
-                Move move = moveIterator.next();  
-                double qValue = calculateQValue(state, move);  
-                moveQValues.put(move, qValue);
-            }
-	        
-	        // The best move: the move with the highest Q-value
-	        Move bestMove = Collections.max(moveQValues.entrySet(), Map.Entry.comparingByValue()).getKey();
-	        extractedPolicy.policy.put(state, bestMove); // Update the policy with the best move for the current state
-	    }
-	    
-	    return extractedPolicy;
-	}
-	
-	/**
-	 * calculates the Q-value for a given state and move with the transition probabilities.
-	 * @param state a given state
-	 * @param move a given action
-	 * @return the calculated q value using bellman's eqn
-	 */
-	private double calculateQValue(Game state, Move move) {
-	    double qValue = 0; // Value Initialization
-	    
-	    // getting the transitions for the given state and move
-	    List<TransitionProb> transitions = mdp.generateTransitions(state, move); // all possible transitions for the given state and move
-	    Iterator<TransitionProb> transitionIterator = transitions.iterator();
-	    
-	    // Performs q value calculation for a given state with all possible moves
-	    while (transitionIterator.hasNext()) {
-	        TransitionProb transition = transitionIterator.next();
-	        double reward = transition.outcome.localReward;
-	        double futureValue = this.valueFunction.get(transition.outcome.sPrime);
-	        qValue += transition.prob * (reward + (discount * futureValue)); // Value Updated
-	    }
-	    
-	    return qValue;
+		CompiledTTTMDP model = mdp.compile();
+		StateIndex index = StateIndex.get();
+		
+		for (int row = 0; row < model.numRows(); row++) {
+			// The best move: the move with the highest Q-value
+			int best = model.bestAction(row, valueFunction, discount);
+			extractedPolicy.policy.put(index.game(model.state(row)), Move.of('X', model.cell(best)));
+		}
+		
+		return extractedPolicy;
+	}
+	
+	/**
+	 * Saves {@link #valueFunction}, with the parameters of the MDP and the number of iterations and residual of the last
+	 * call to {@link #iterate()}, so that it can be restored with {@link #restoreCheckpoint(String)}.
+	 * @param file
+	 * @throws IOException
+	 */
+	public void saveCheckpoint(String file) throws IOException
+	{
+		Checkpoint.save(file, Checkpoint.Kind.STATE_VALUES, getParameters(), iterations, residual, valueFunction);
+	}
+	
+	/**
+	 * Restores {@link #valueFunction} from a checkpoint saved by {@link #saveCheckpoint(String)}. The next call to 
+	 * {@link #train()} or {@link #iterate()} continues from the restored values, so it converges in fewer iterations than 
+	 * from scratch, even if the checkpoint was saved with other parameters (a warm start).
+	 * @param file
+	 * @throws IOException
+	 */
+	public void restoreCheckpoint(String file) throws IOException
+	{
+		Checkpoint checkpoint = Checkpoint.load(file);
+		double[] values = new double[StateIndex.get().size()];
+		checkpoint.copyTo(Checkpoint.Kind.STATE_VALUES, values);
+		
+		this.valueFunction = values;
+		this.iterations = (int) checkpoint.getProgress();
+		this.residual = checkpoint.getResidual();
+	}
+	
+	/**
+	 * @return the discount factor and the rewards of the MDP
+	 */
+	@Override
+	public SolverParameters getParameters()
+	{
+		if (mdp==null)
+			return super.getParameters();
+		
+		return new SolverParameters(getClass().getSimpleName(), discount, mdp.winReward, mdp.loseReward, mdp.livingReward, mdp.drawReward);
+	}
+	
+	/**
+	 * 
+	 * @param g
+	 * @return the current value of {@code g}, or of its canonical form
+	 */
+	public double getValue(Game g)
+	{
+		StateIndex index = StateIndex.get();
+		return valueFunction[index.canonicalId(index.id(g))];
+	}
+	
+	/**
+	 * 
+	 * @return the number of iterations performed by the last call to {@link #iterate}
+	 */
+	public int getIterations()
+	{
+		return iterations;
+	}
+	
+	/**
+	 * 
+	 * @return the Bellman residual, i.e. the largest change of a value, in the last iteration of {@link #iterate}
+	 */
+	public double getResidual()
+	{
+		return residual;
+	}
+	
+	/**
+	 * Sets how values are updated by {@link #iterate}
+	 * @param update
+	 */
+	public void setUpdate(Update update)
+	{
+		this.update = update;
+	}
+	
+	/**
+	 * Sets the convergence threshold of {@link #iterate}
+	 * @param epsilon
+	 */
+	public void setEpsilon(double epsilon)
+	{
+		this.epsilon = epsilon;
+	}
+	
+	/**
+	 * Like {@link #train()}, but takes the values and policy from {@link SolvedModelCache#shared()} if an agent with 
+	 * the same parameters has solved the mdp before, and caches them otherwise.
+	 */
+	void solve()
+	{
+		SolvedModelCache.Model model = SolvedModelCache.shared().get(getParameters(), () -> {
+			train();
+			return new SolvedModelCache.Model(getParameters(), policy, iterations, residual, valueFunction);
+		});
+		use(model.getPolicy(), model.getValues());
+	}
+	
+	/**
+	 * Takes a solved policy and its values, e.g. from {@link SolvedModelCache} or {@link PresolvedPolicies}, as if 
+	 * this agent had been trained: sets the policy, and {@link #valueFunction} with the iterations and residual they 
+	 * took.
+	 * @param policy
+	 * @param values
+	 */
+	private void use(Policy policy, Checkpoint values)
+	{
+		values.copyTo(Checkpoint.Kind.STATE_VALUES, valueFunction);
+		this.iterations = (int) values.getProgress();
+		this.residual = values.getResidual();
+		super.policy = policy;
 	}
 	
 	/**
@@ -0,0 +1,55 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CancellationException;
+
+import org.junit.Test;
+
+import ticTacToe.Arena;
+import ticTacToe.DefensiveAgent;
+import ticTacToe.RandomAgent;
+import ticTacToe.ValueIterationAgent;
+
+public class TestArena {
+	
+	static Arena arena(int workers)
+	{
+		return new Arena(workers)
+				.addX("vi", ValueIterationAgent::newInstance)
+				.addX("random", RandomAgent::new)
+				.addO("random", RandomAgent::new)
+				.addO("def", DefensiveAgent::new);
+	}
+	
+	/**
+	 * Every X agent meets every O agent with each side starting, and every game is counted once.
+	 */
+	@Test
+	public void testCounts() {
+		int games=1500; // a chunk and a half
+		Arena.Results results=arena(2).play(games);
+		
+		assertEquals(2*2*2, results.getMatches().size());
+		assertEquals(games*2*2*2, results.getGames());
+		for (Arena.Match m: results.getMatches())
+		{
+			assertEquals(m.toString(), games, m.getXWins()+m.getOWins()+m.getDraws());
+			if (m.x.equals("vi"))
+				assertEquals(m.toString(), 0, m.getOWins());
+		}
+		assertEquals(games, results.getMatch("random", "def", 'O').getGames());
+		assertTrue(results.getGamesPerSecond() > 0);
+	}
+	
+	@Test(expected=CancellationException.class)
+	public void testInterrupted() {
+		Thread.currentThread().interrupt();
+		try {
+			arena(2).play(1000);
+		}
+		finally {
+			assertTrue(Thread.interrupted()); // and clears the flag for the other tests
+		}
+	}
+
+}
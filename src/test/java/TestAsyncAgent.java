@@ -0,0 +1,196 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+
+import ticTacToe.Agent;
+import ticTacToe.AsyncAgent;
+import ticTacToe.Game;
+import ticTacToe.QLearningAgent;
+import ticTacToe.RetrogradeAgent;
+import ticTacToe.TTTEnvironment;
+import ticTacToe.TTTMDP;
+import ticTacToe.ValueIterationAgent;
+
+public class TestAsyncAgent {
+
+	/**
+	 * An agent whose training waits until it is let go.
+	 */
+	static class BlockedAgent extends Agent {
+
+		final CountDownLatch started=new CountDownLatch(1);
+		final CountDownLatch release=new CountDownLatch(1);
+		volatile boolean trained=false;
+
+		@Override
+		public void train() {
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				throw new CancellationException("interrupted");
+			}
+			trained=true;
+		}
+	}
+
+	@Test
+	public void testReadyAfterTraining() throws Exception {
+		ExecutorService executor=Executors.newSingleThreadExecutor();
+		try {
+			BlockedAgent agent=new BlockedAgent();
+			AsyncAgent<BlockedAgent> async=AsyncAgent.train(agent, executor);
+			assertTrue(agent.started.await(10, TimeUnit.SECONDS));
+			assertFalse(async.isReady());
+			assertEquals(0, async.getProgress(), 0);
+
+			agent.release.countDown();
+			assertSame(agent, async.ready().get(10, TimeUnit.SECONDS));
+			assertTrue(agent.trained);
+			assertFalse(async.cancel());
+			assertTrue(async.isReady());
+			assertEquals(1, async.getProgress(), 0);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testTrainsTheAgent() {
+		AsyncAgent<ValueIterationAgent> async=AsyncAgent.train(new ValueIterationAgent(new TTTMDP(), 0.9));
+		ValueIterationAgent solved=new ValueIterationAgent(new TTTMDP(), 0.9);
+		solved.train();
+
+		for (Game g: Game.generateAllValidGames('X'))
+			if (!g.isTerminal())
+				assertEquals(solved.getPolicy().getMove(g), async.getMove(g)); // waits for training
+		assertTrue(async.getAgent().getIterations() > 0);
+	}
+
+	@Test
+	public void testRetrogradeAgentTrains() {
+		AsyncAgent<RetrogradeAgent> async=AsyncAgent.train(new RetrogradeAgent(new TTTMDP(), 0.9));
+		RetrogradeAgent solved=new RetrogradeAgent();
+
+		for (Game g: Game.generateAllValidGames('X'))
+			if (!g.isTerminal())
+				assertEquals(solved.getPolicy().getMove(g), async.getMove(g));
+	}
+
+	@Test
+	public void testProgress() throws Exception {
+		List<Long> done=new ArrayList<Long>();
+		List<Long> totals=new ArrayList<Long>();
+		ExecutorService executor=Executors.newSingleThreadExecutor();
+		try {
+			QLearningAgent agent=new QLearningAgent(new TTTEnvironment(), 0.1, 5000, 0.9);
+			AsyncAgent<QLearningAgent> async=AsyncAgent.train(agent, executor, (a, d, t) -> {
+				assertSame(agent, a);
+				done.add(d); // only the training thread adds
+				totals.add(t);
+			});
+			async.ready().get(60, TimeUnit.SECONDS);
+
+			assertEquals(5, done.size());
+			for (int i=1;i<done.size();i++)
+				assertTrue(done.get(i)>done.get(i-1));
+			assertEquals(5000L, (long) done.get(done.size()-1));
+			for (long total: totals)
+				assertEquals(5000L, total);
+			assertEquals(5000L, async.getDone());
+			assertEquals(5000L, async.getTotal());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testFailedTraining() throws Exception {
+		IllegalStateException failure=new IllegalStateException("no training today");
+		AsyncAgent<Agent> async=AsyncAgent.train(new Agent() {
+			@Override
+			public void train() {
+				throw failure;
+			}
+		});
+
+		try {
+			async.ready().get(10, TimeUnit.SECONDS);
+			fail("Training did not fail");
+		} catch (ExecutionException e) {
+			assertSame(failure, e.getCause());
+		}
+		assertTrue(async.isReady());
+		assertTrue(async.ready().isCompletedExceptionally());
+		try {
+			async.getMove(new Game());
+			fail("Played without a trained agent");
+		} catch (CompletionException e) {
+			assertSame(failure, e.getCause());
+		}
+	}
+
+	@Test
+	public void testCancelWhileWaiting() throws Exception {
+		ExecutorService executor=Executors.newSingleThreadExecutor();
+		try {
+			BlockedAgent agent=new BlockedAgent();
+			AsyncAgent<BlockedAgent> async=AsyncAgent.train(agent, executor);
+			assertTrue(agent.started.await(10, TimeUnit.SECONDS));
+
+			assertTrue(async.cancel());
+			assertTrue(async.ready().isCancelled());
+
+			// the training thread was interrupted, so it is free for the next task, with its interrupt cleared
+			assertFalse(executor.submit(() -> Thread.currentThread().isInterrupted()).get(10, TimeUnit.SECONDS));
+			assertFalse(agent.trained);
+			try {
+				async.getMove(new Game());
+				fail("Played with a cancelled agent");
+			} catch (CancellationException e) {
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Cancelling the future of a q-learning agent stops its training between two episodes.
+	 */
+	@Test
+	public void testCancelQLearning() throws Exception {
+		ExecutorService executor=Executors.newSingleThreadExecutor();
+		try {
+			CountDownLatch progressed=new CountDownLatch(1);
+			QLearningAgent agent=new QLearningAgent(new TTTEnvironment(), 0.1, Integer.MAX_VALUE, 0.9);
+			AsyncAgent<QLearningAgent> async=AsyncAgent.train(agent, executor, (a, d, t) -> progressed.countDown());
+			assertTrue(progressed.await(30, TimeUnit.SECONDS));
+
+			assertTrue(async.ready().cancel(true));
+			try {
+				executor.submit(() -> null).get(30, TimeUnit.SECONDS);
+			} catch (TimeoutException e) {
+				fail("Training went on after being cancelled");
+			}
+			assertTrue(async.getDone() < Integer.MAX_VALUE);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+}
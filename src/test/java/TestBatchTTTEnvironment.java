@@ -0,0 +1,91 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import ticTacToe.BatchTTTEnvironment;
+import ticTacToe.DefensiveAgent;
+import ticTacToe.Game;
+import ticTacToe.IllegalMoveException;
+import ticTacToe.Move;
+import ticTacToe.Outcome;
+import ticTacToe.RandomSource;
+import ticTacToe.StateIndex;
+import ticTacToe.TTTEnvironment;
+
+public class TestBatchTTTEnvironment {
+	
+	static final int STEPS=2000;
+	
+	/**
+	 * Plays the same moves of X in a {@link TTTEnvironment} and in a batch of one game, with the same seed for the
+	 * random opponent, and checks that every step has the same reward, next state and end of game.
+	 */
+	@Test
+	public void testSameAsTTTEnvironment() throws IllegalMoveException {
+		StateIndex index=StateIndex.get();
+		int start=index.id(new Game());
+		
+		double[] rewards=new double[STEPS];
+		int[] nextStates=new int[STEPS];
+		boolean[] done=new boolean[STEPS];
+		
+		RandomSource.seed(5);
+		SplittableRandom xMoves=new SplittableRandom(7);
+		TTTEnvironment env=new TTTEnvironment();
+		for (int step=0;step<STEPS;step++)
+		{
+			Game g=env.getCurrentGameState();
+			int empty=g.emptyCells();
+			int cell=Game.nthCell(empty, xMoves.nextInt(Integer.bitCount(empty)));
+			Outcome outcome=env.executeMove(Move.of('X', cell));
+			rewards[step]=outcome.localReward;
+			nextStates[step]=outcome.sPrimeId;
+			done[step]=env.isTerminal();
+			if (env.isTerminal())
+				env.reset();
+		}
+		
+		RandomSource.seed(5);
+		xMoves=new SplittableRandom(7);
+		BatchTTTEnvironment batch=new BatchTTTEnvironment(1);
+		int[] cells=new int[1];
+		int games=0;
+		assertEquals(start, batch.state(0));
+		for (int step=0;step<STEPS;step++)
+		{
+			int empty=batch.emptyCells(0);
+			cells[0]=Game.nthCell(empty, xMoves.nextInt(Integer.bitCount(empty)));
+			batch.step(cells);
+			assertEquals("reward of step "+step, rewards[step], batch.rewards()[0], 0);
+			assertEquals("next state of step "+step, nextStates[step], batch.nextStates()[0]);
+			assertEquals("end of game at step "+step, done[step], batch.done()[0]);
+			if (batch.done()[0])
+			{
+				assertEquals(start, batch.state(0)); // reset
+				games++;
+			}
+			else
+				assertEquals(batch.nextStates()[0], batch.state(0));
+		}
+		System.out.println(games+" games in "+STEPS+" steps");
+	}
+	
+	@Test
+	public void testOpponentNotRenamed() throws IllegalMoveException {
+		DefensiveAgent opponent=new DefensiveAgent();
+		opponent.setName('X');
+		BatchTTTEnvironment batch=new BatchTTTEnvironment(4, opponent);
+		batch.step(new int[] {0, 4, 8, 2});
+		assertEquals('X', opponent.getName());
+	}
+	
+	@Test(expected=IllegalMoveException.class)
+	public void testIllegalMove() throws IllegalMoveException {
+		BatchTTTEnvironment batch=new BatchTTTEnvironment(2);
+		batch.step(new int[] {4, 4});
+		batch.step(new int[] {0, 4});
+	}
+
+}
@@ -0,0 +1,136 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import ticTacToe.Checkpoint;
+import ticTacToe.Game;
+import ticTacToe.QLearningAgent;
+import ticTacToe.RandomAgent;
+import ticTacToe.RandomSource;
+import ticTacToe.SolverParameters;
+import ticTacToe.StateIndex;
+import ticTacToe.TTTEnvironment;
+import ticTacToe.TTTMDP;
+import ticTacToe.ValueIterationAgent;
+
+public class TestCheckpoint {
+	
+	static String tempFile() throws IOException
+	{
+		File file=File.createTempFile("checkpoint", ".ckpt");
+		file.deleteOnExit();
+		return file.getPath();
+	}
+	
+	static void roundTrip(Checkpoint.Kind kind, int size) throws IOException
+	{
+		double[] values=new double[size];
+		for (int i=0;i<size;i++)
+			values[i]=Math.sin(i)*100;
+		SolverParameters parameters=new SolverParameters("TestSolver", 0.9, 10, -50, -1, 0, 0.1, 1234);
+		
+		String file=tempFile();
+		Checkpoint.save(file, kind, parameters, 42, 1e-7, values);
+		assertFalse(new File(file+".tmp").exists());
+		
+		Checkpoint checkpoint=Checkpoint.load(file);
+		assertEquals(kind, checkpoint.getKind());
+		assertEquals(parameters, checkpoint.getParameters());
+		assertEquals(42, checkpoint.getProgress());
+		assertEquals(1e-7, checkpoint.getResidual(), 0);
+		assertEquals(size, checkpoint.size());
+		
+		double[] restored=new double[size];
+		checkpoint.copyTo(kind, restored);
+		assertArrayEquals(values, restored, 0);
+	}
+	
+	@Test
+	public void testStateValuesRoundTrip() throws IOException {
+		roundTrip(Checkpoint.Kind.STATE_VALUES, StateIndex.get().size());
+	}
+	
+	@Test
+	public void testQValuesRoundTrip() throws IOException {
+		roundTrip(Checkpoint.Kind.Q_VALUES, 9*StateIndex.get().size());
+	}
+	
+	@Test
+	public void testEmptyRoundTrip() throws IOException {
+		roundTrip(Checkpoint.Kind.STATE_VALUES, 0);
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testWrongKind() throws IOException {
+		String file=tempFile();
+		Checkpoint.save(file, Checkpoint.Kind.Q_VALUES, new SolverParameters("TestSolver", 0.9, 10, -50, -1, 0), 0, 0, 
+				new double[9*StateIndex.get().size()]);
+		new ValueIterationAgent(new TTTMDP(), 0.9).restoreCheckpoint(file);
+	}
+	
+	@Test(expected=IOException.class)
+	public void testNotACheckpoint() throws IOException {
+		Checkpoint.load(tempFile()); // empty
+	}
+	
+	/**
+	 * A value iteration agent restored from the values of a solved one only needs one sweep to see they have converged.
+	 */
+	@Test
+	public void testWarmStart() throws IOException {
+		ValueIterationAgent solved=new ValueIterationAgent(new TTTMDP(), 0.9);
+		solved.train();
+		String file=tempFile();
+		solved.saveCheckpoint(file);
+		
+		ValueIterationAgent restored=new ValueIterationAgent(new TTTMDP(), 0.9);
+		restored.restoreCheckpoint(file);
+		assertEquals(solved.getIterations(), restored.getIterations());
+		restored.train();
+		assertEquals(1, restored.getIterations());
+		for (Game g: Game.generateAllValidGames('X'))
+			if (!g.isTerminal())
+				assertEquals(solved.getPolicy().getMove(g), restored.getPolicy().getMove(g));
+	}
+	
+	@Test
+	public void testQLearningRoundTrip() throws IOException {
+		RandomSource.seed(3);
+		QLearningAgent learned=new QLearningAgent(new RandomAgent(), 0.2, 2000, 0.8);
+		String file=tempFile();
+		learned.saveCheckpoint(file);
+		
+		QLearningAgent restored=new QLearningAgent(new TTTEnvironment(), 0.1, 40000, 0.9);
+		restored.restoreCheckpoint(file);
+		assertEquals(learned.getParameters(), restored.getParameters());
+		for (Game g: Game.generateAllValidGames('X'))
+			if (!g.isTerminal())
+				assertEquals(learned.getPolicy().getMove(g), restored.getPolicy().getMove(g));
+		
+		String again=tempFile();
+		restored.saveCheckpoint(again);
+		double[] before=new double[9*StateIndex.get().size()];
+		double[] after=new double[before.length];
+		Checkpoint.load(file).copyTo(Checkpoint.Kind.Q_VALUES, before);
+		Checkpoint.load(again).copyTo(Checkpoint.Kind.Q_VALUES, after);
+		assertArrayEquals(before, after, 0);
+	}
+	
+	/**
+	 * Q-values learned with other rewards are rejected.
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void testQLearningOtherRewards() throws IOException {
+		QLearningAgent learned=new QLearningAgent(new RandomAgent(), 0.1, 100, 0.9);
+		String file=tempFile();
+		learned.saveCheckpoint(file);
+		
+		new QLearningAgent(new TTTEnvironment(new RandomAgent(), 1, -1, 0, 0), 0.1, 100, 0.9).restoreCheckpoint(file);
+	}
+
+}
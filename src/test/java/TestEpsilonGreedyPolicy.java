@@ -0,0 +1,55 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import ticTacToe.EpsilonGreedyPolicy;
+import ticTacToe.EpsilonGreedyPolicy.Decay;
+import ticTacToe.QTable;
+
+public class TestEpsilonGreedyPolicy {
+	
+	/**
+	 * 
+	 * @param p
+	 * @param episodes
+	 * @return epsilon after {@code episodes} more episodes of {@code p}
+	 */
+	static double epsilonAfter(EpsilonGreedyPolicy p, int episodes)
+	{
+		for (int i=0;i<episodes;i++)
+			p.endEpisode();
+		
+		return p.getEpsilon();
+	}
+	
+	@Test
+	public void testConstant() {
+		EpsilonGreedyPolicy p=new EpsilonGreedyPolicy(new QTable(), 0.2);
+		assertEquals(0.2, p.getEpsilon(), 1e-12);
+		assertEquals(0.2, epsilonAfter(p, 1000), 1e-12);
+	}
+	
+	@Test
+	public void testLinear() {
+		EpsilonGreedyPolicy p=new EpsilonGreedyPolicy(new QTable(), 1.0, 0.1, Decay.LINEAR, 100);
+		assertEquals(1.0, p.getEpsilon(), 1e-12);
+		assertEquals(0.55, epsilonAfter(p, 50), 1e-12);
+		assertEquals(0.1, epsilonAfter(p, 50), 1e-12);
+		assertEquals(0.1, epsilonAfter(p, 50), 1e-12); // stays at the final value
+	}
+	
+	@Test
+	public void testExponential() {
+		EpsilonGreedyPolicy p=new EpsilonGreedyPolicy(new QTable(), 1.0, 0.01, Decay.EXPONENTIAL, 100);
+		assertEquals(1.0, p.getEpsilon(), 1e-12);
+		assertEquals(0.1, epsilonAfter(p, 50), 1e-12);
+		assertEquals(0.01, epsilonAfter(p, 50), 1e-12);
+		assertEquals(0.01, epsilonAfter(p, 50), 1e-12);
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testExponentialToZero() {
+		new EpsilonGreedyPolicy(new QTable(), 1.0, 0, Decay.EXPONENTIAL, 100);
+	}
+
+}
@@ -0,0 +1,181 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import ticTacToe.Game;
+import ticTacToe.IllegalMoveException;
+import ticTacToe.Move;
+
+/**
+ * Checks the bitboard {@link Game} against computations on its board as a 3x3 array of chars.
+ */
+public class TestGame {
+
+	/**
+	 *
+	 * @return the state of {@code board}: the winner of the first line completed, checking rows, columns, then the
+	 * two diagonals, like the char array game did; otherwise DRAW if the board is full, else ONGOING
+	 */
+	static int directState(char[][] board)
+	{
+		List<char[]> lines=new ArrayList<char[]>();
+		for (int i=0;i<3;i++)
+			lines.add(new char[] {board[i][0], board[i][1], board[i][2]});
+		for (int j=0;j<3;j++)
+			lines.add(new char[] {board[0][j], board[1][j], board[2][j]});
+		lines.add(new char[] {board[0][0], board[1][1], board[2][2]});
+		lines.add(new char[] {board[0][2], board[1][1], board[2][0]});
+
+		for (char[] line: lines)
+			if (line[0]!=' ' && line[0]==line[1] && line[1]==line[2])
+				return line[0]=='X' ? Game.X_WON : Game.O_WON;
+
+		for (char[] row: board)
+			for (char c: row)
+				if (c==' ')
+					return Game.ONGOING;
+
+		return Game.DRAW;
+	}
+
+	/**
+	 *
+	 * @return the empty cells of {@code board}, 3*x+y
+	 */
+	static List<Integer> directEmptyCells(char[][] board)
+	{
+		List<Integer> cells=new ArrayList<Integer>();
+		for (int x=0;x<3;x++)
+			for (int y=0;y<3;y++)
+				if (board[x][y]==' ')
+					cells.add(3*x+y);
+
+		return cells;
+	}
+
+	/**
+	 * Checks everything derived from the masks of {@code g} against its board.
+	 */
+	static void assertConsistent(Game g)
+	{
+		char[][] board=g.getBoard();
+		int state=directState(board);
+		assertEquals(g.toString(), state, g.getState());
+		assertEquals(g.toString(), state, g.evaluateGameState());
+		assertEquals(state!=Game.ONGOING, g.isTerminal());
+
+		List<Integer> empty=directEmptyCells(board);
+		int mask=0;
+		for (int cell: empty)
+			mask|=1<<cell;
+		assertEquals(mask, g.emptyCells());
+
+		List<Move> moves=g.getPossibleMoves();
+		if (g.isTerminal())
+			assertTrue(moves.isEmpty());
+		else {
+			assertEquals(empty.size(), moves.size());
+			for (int i=0;i<moves.size();i++) {
+				assertEquals((int) empty.get(i), moves.get(i).getCell());
+				assertTrue(g.isLegal(moves.get(i)));
+			}
+		}
+
+		for (int cell: empty)
+			for (char who: new char[] {'X', 'O'}) {
+				char[][] after=g.getBoard();
+				after[cell/3][cell%3]=who;
+				boolean completes=directState(after)==(who=='X' ? Game.X_WON : Game.O_WON);
+				if (directState(board)==Game.ONGOING) // a line already there would be found first
+					assertEquals(completes, g.completesLine(who, cell/3, cell%3));
+			}
+	}
+
+	/**
+	 *
+	 * @return the hash code of {@code g} the way it used to be computed: the base 3 number written with a digit per 
+	 * cell (' ' is 0, 'X' is 1, 'O' is 2), then a digit for whose turn it is (1 for X, 2 for O)
+	 */
+	static int directHash(Game g, char turn)
+	{
+		return directHash(g.getBoard(), turn);
+	}
+
+	static int directHash(char[][] board, char turn)
+	{
+		String s="";
+		for (char[] row: board)
+			for (char c: row)
+				s+=(c==' ') ? '0' : (c=='X') ? '1' : '2';
+		s+=(turn=='X') ? '1' : '2';
+		return Integer.parseInt(s, 3);
+	}
+
+	/**
+	 * Checks the hash code of {@code g}, whose turn it is {@code turn}, against its board, and that it can be turned 
+	 * back into the game.
+	 */
+	static void assertHash(Game g, char turn)
+	{
+		int hash=directHash(g, turn);
+		assertEquals(g.toString(), hash, g.hashCode());
+
+		Game inverse=Game.inverseHash(hash);
+		assertEquals(hash, inverse.hashCode());
+		assertEquals(g, inverse);
+		assertEquals(g.toString(), inverse.toString());
+	}
+
+	@Test
+	public void testAllValidGames() {
+		for (char turn: new char[] {'X', 'O'})
+			for (Game g: Game.generateAllValidGames(turn))
+				assertConsistent(g);
+	}
+
+	@Test
+	public void testHashOfAllValidGames() {
+		for (char turn: new char[] {'X', 'O'})
+			for (Game g: Game.generateAllValidGames(turn))
+				if (!g.isTerminal()) // terminal games of both turns are in both lists
+					assertHash(g, turn);
+	}
+
+	@Test
+	public void testInverseHashOfNoTurn() {
+		assertEquals(null, Game.inverseHash(directHash(new Game(), 'X')-1)); // turn digit 0
+		assertEquals(null, Game.inverseHash(-1));
+		assertEquals(null, Game.inverseHash(3*19683));
+	}
+
+	@Test
+	public void testPlayedGames() throws IllegalMoveException {
+		SplittableRandom random=new SplittableRandom(1);
+		for (int i=0;i<2000;i++) {
+			Game g=new Game();
+			assertConsistent(g);
+			while (!g.isTerminal()) {
+				List<Move> moves=g.getPossibleMoves();
+				Move m=moves.get(random.nextInt(moves.size()));
+
+				Game simulated=g.simulateMove(m);
+				g.executeMove(m);
+				assertConsistent(g);
+				assertConsistent(simulated);
+				// the hash code is updated incrementally, and it is the other side's turn
+				char turn=(m.who.getName()=='X') ? 'O' : 'X';
+				assertHash(g, turn);
+				assertHash(simulated, turn);
+				assertEquals(g.clone().hashCode(), g.hashCode());
+				assertEquals(g.toString(), simulated.toString());
+				assertEquals(g.getState(), simulated.getState());
+			}
+		}
+	}
+
+}
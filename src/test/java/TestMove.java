@@ -0,0 +1,127 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import ticTacToe.Game;
+import ticTacToe.Move;
+
+public class TestMove {
+
+	@Test
+	public void testInterned() {
+		Set<Move> moves=new HashSet<Move>();
+		for (char who: new char[] {'X', 'O'})
+			for (int cell=0;cell<9;cell++) {
+				Move m=Move.of(who, cell);
+				assertSame(m, Move.of(who, cell));
+				assertSame(m, Move.of(who, cell/3, cell%3));
+				assertEquals(who, m.who.getName());
+				assertEquals(cell/3, m.x);
+				assertEquals(cell%3, m.y);
+				assertEquals(cell, m.getCell());
+				moves.add(m);
+			}
+		assertEquals(18, moves.size());
+	}
+
+	/**
+	 * The shared moves are equal to, and hash like, moves made with the constructors.
+	 */
+	@Test
+	public void testEqualsConstructed() {
+		for (char who: new char[] {'X', 'O'})
+			for (int cell=0;cell<9;cell++) {
+				Move m=new Move(who, cell/3, cell%3);
+				Move shared=Move.of(who, cell);
+				assertNotSame(shared, m);
+				assertEquals(shared, m);
+				assertEquals(m, shared);
+				assertEquals(shared.hashCode(), m.hashCode());
+			}
+		assertEquals(Move.of('X', 4), new Move(1, 1));
+		assertTrue(!Move.of('X', 4).equals(Move.of('O', 4)));
+		assertTrue(!Move.of('X', 4).equals(Move.of('X', 5)));
+	}
+
+	@Test
+	public void testInvalid() {
+		for (int cell: new int[] {-1, 9})
+			try {
+				Move.of('X', cell);
+				fail("Accepted cell "+cell);
+			} catch (IllegalArgumentException e) {
+			}
+		for (int[] xy: new int[][] {{-1, 0}, {0, 3}, {3, 0}})
+			try {
+				Move.of('O', xy[0], xy[1]);
+				fail("Accepted coordinates "+xy[0]+","+xy[1]);
+			} catch (IllegalArgumentException e) {
+			}
+		try {
+			Move.of(' ', 0);
+			fail("Accepted a move by nobody");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	/**
+	 * The possible moves of every game are the shared moves into its empty cells, in a shared list that cannot be
+	 * changed.
+	 */
+	@Test
+	public void testPossibleMovesAreShared() {
+		for (char turn: new char[] {'X', 'O'})
+			for (Game g: Game.generateAllValidGames(turn)) {
+				List<Move> moves=g.getPossibleMoves();
+				List<Move> opponent=g.getPossibleMovesByOpponent();
+				assertSame(moves, g.clone().getPossibleMoves());
+				if (g.isTerminal()) {
+					assertTrue(moves.isEmpty());
+					assertTrue(opponent.isEmpty());
+					continue;
+				}
+
+				char who=(g.hashCode()%3==1) ? 'X' : 'O'; // the turn digit of the hash code
+				char other=(who=='X') ? 'O' : 'X';
+				int empty=g.emptyCells();
+				assertEquals(Integer.bitCount(empty), moves.size());
+				assertEquals(Integer.bitCount(empty), opponent.size());
+				for (int i=0;i<moves.size();i++) {
+					int cell=Game.nthCell(empty, i);
+					assertSame(Move.of(who, cell), moves.get(i));
+					assertSame(Move.of(other, cell), opponent.get(i));
+				}
+
+				try {
+					moves.remove(0);
+					fail("Changed the shared list of moves");
+				} catch (UnsupportedOperationException e) {
+				}
+				try {
+					opponent.add(Move.of(other, 0));
+					fail("Changed the shared list of moves");
+				} catch (UnsupportedOperationException e) {
+				}
+			}
+	}
+
+	@Test
+	public void testNthCell() {
+		for (int mask=0;mask<=511;mask++) {
+			int n=0;
+			for (int cell=0;cell<9;cell++)
+				if ((mask & (1<<cell))!=0)
+					assertEquals(cell, Game.nthCell(mask, n++));
+			assertEquals(Integer.bitCount(mask), n);
+		}
+	}
+
+}
@@ -0,0 +1,62 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import ticTacToe.Game;
+import ticTacToe.MappedPolicy;
+import ticTacToe.Policy;
+import ticTacToe.PolicyFile;
+import ticTacToe.StateIndex;
+import ticTacToe.TTTMDP;
+import ticTacToe.ValueIterationAgent;
+
+public class TestPolicyFile {
+	
+	/**
+	 * Saves a solved policy, loads it back both ways, and checks all three play the same move in every state.
+	 */
+	@Test
+	public void testRoundTrip() throws IOException {
+		ValueIterationAgent agent=new ValueIterationAgent(new TTTMDP(), 0.9);
+		agent.train();
+		
+		File file=File.createTempFile("policy", ".pol");
+		try {
+			PolicyFile.save(agent.getPolicy(), agent.getParameters(), file.getPath());
+			
+			MappedPolicy mapped=PolicyFile.load(file.getPath());
+			Policy loaded=new Policy(file.getPath());
+			assertEquals(agent.getParameters(), mapped.getParameters());
+			assertEquals(agent.getParameters(), PolicyFile.readParameters(file.getPath()));
+			
+			StateIndex index=StateIndex.get();
+			for (int id=0;id<index.size();id++)
+			{
+				Game g=index.game(id);
+				if (g.isTerminal())
+					continue;
+				
+				assertEquals("state "+id, agent.getPolicy().getMove(g), mapped.getMove(g));
+				assertEquals("state "+id, agent.getPolicy().getMove(g), loaded.getMove(g));
+			}
+		}
+		finally {
+			file.delete();
+		}
+	}
+	
+	@Test(expected=IOException.class)
+	public void testNotAPolicyFile() throws IOException {
+		File file=File.createTempFile("policy", ".pol");
+		try {
+			PolicyFile.load(file.getPath());
+		}
+		finally {
+			file.delete();
+		}
+	}
+
+}
@@ -0,0 +1,82 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import ticTacToe.Agent;
+import ticTacToe.Game;
+import ticTacToe.MappedPolicy;
+import ticTacToe.Policy;
+import ticTacToe.PolicyIterationAgent;
+import ticTacToe.PresolvedPolicies;
+import ticTacToe.QLearningAgent;
+import ticTacToe.RandomSource;
+import ticTacToe.SolvedModelCache;
+import ticTacToe.TTTEnvironment;
+import ticTacToe.TTTMDP;
+import ticTacToe.ValueIterationAgent;
+
+/**
+ * Checks that the presolved resources are used, and are what solving or training with the same parameters (and seed) 
+ * gives today, so they do not go stale. See {@link PresolvedPolicies#main(String[])} to regenerate them.
+ */
+public class TestPresolvedPolicies {
+	
+	static void assertSameMoves(Agent expected, Agent actual)
+	{
+		for (Game g: Game.generateAllValidGames('X'))
+			if (!g.isTerminal())
+				assertEquals(g.toString(), expected.getPolicy().getMove(g), actual.getPolicy().getMove(g));
+	}
+	
+	@Test
+	public void testValueIteration() {
+		long misses=SolvedModelCache.shared().getMisses();
+		ValueIterationAgent presolved=ValueIterationAgent.newInstance();
+		assertEquals("solved instead of loaded", misses, SolvedModelCache.shared().getMisses());
+		
+		ValueIterationAgent solved=new ValueIterationAgent(new TTTMDP(), 0.9);
+		solved.train();
+		assertEquals(solved.getParameters(), presolved.getParameters());
+		assertSameMoves(solved, presolved);
+		for (Game g: Game.generateAllValidGames('X'))
+			assertEquals(solved.getValue(g), presolved.getValue(g), 1e-9);
+		assertEquals(solved.getIterations(), presolved.getIterations());
+		assertEquals(solved.getResidual(), presolved.getResidual(), 0);
+	}
+	
+	@Test
+	public void testPolicyIteration() {
+		long misses=SolvedModelCache.shared().getMisses();
+		PolicyIterationAgent presolved=PolicyIterationAgent.newInstance();
+		assertEquals("solved instead of loaded", misses, SolvedModelCache.shared().getMisses());
+		
+		RandomSource.seed(PresolvedPolicies.SEED);
+		PolicyIterationAgent solved=new PolicyIterationAgent(new TTTMDP(), 0.9);
+		solved.train();
+		assertEquals(solved.getParameters(), presolved.getParameters());
+		assertSameMoves(solved, presolved);
+		for (Game g: Game.generateAllValidGames('X'))
+			assertEquals(solved.getValue(g), presolved.getValue(g), 1e-9);
+		assertEquals(solved.getRounds(), presolved.getRounds());
+		
+		// the current policy agrees with the presolved one
+		Policy extracted=presolved.extractPolicy();
+		for (Game g: Game.generateAllValidGames('X'))
+			if (!g.isTerminal())
+				assertEquals(g.toString(), presolved.getPolicy().getMove(g), extracted.getMove(g));
+	}
+	
+	@Test
+	public void testQLearning() {
+		QLearningAgent presolved=QLearningAgent.newInstance();
+		assertTrue("trained instead of loaded", presolved.getPolicy() instanceof MappedPolicy);
+		
+		RandomSource.seed(PresolvedPolicies.SEED);
+		QLearningAgent trained=new QLearningAgent(new TTTEnvironment(), 0.1, 40000, 0.9);
+		trained.train();
+		assertEquals(trained.getParameters(), presolved.getParameters());
+		assertSameMoves(trained, presolved);
+	}
+
+}
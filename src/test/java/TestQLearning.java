@@ -1,11 +1,26 @@
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
 
 import org.junit.Test;
 
 import ticTacToe.AggressiveAgent;
+import ticTacToe.Checkpoint;
 import ticTacToe.DefensiveAgent;
+import ticTacToe.Game;
 import ticTacToe.QLearningAgent;
 import ticTacToe.RandomAgent;
+import ticTacToe.RandomSource;
+import ticTacToe.StateIndex;
+import ticTacToe.TTTEnvironment;
 import ticTacToe.ValueIterationAgent;
 
 public class TestQLearning {
@@ -41,5 +56,77 @@ public class TestQLearning {
 		
 
 	}
+	
+	@Test
+	public void testSeeded() {
+		RandomSource.seed(42);
+		QLearningAgent first=new QLearningAgent();
+		RandomSource.seed(42);
+		QLearningAgent second=new QLearningAgent();
+		
+		for(Game g: Game.generateAllValidGames('X'))
+			if (!g.isTerminal())
+				assertEquals(first.getPolicy().getMove(g), second.getPolicy().getMove(g));
+	}
+	
+	/**
+	 * Trains sequentially with the agent's own generator, from a thread whose generator is not seeded.
+	 */
+	static double[] trainSeeded(long seed) throws IOException {
+		RandomSource.use(new SplittableRandom());
+		QLearningAgent agent=new QLearningAgent(new TTTEnvironment(), 0.1, 5000, 0.9);
+		agent.setRandom(new SplittableRandom(seed));
+		agent.train();
+		
+		File file=File.createTempFile("qtable", ".ckpt");
+		file.deleteOnExit();
+		agent.saveCheckpoint(file.getPath());
+		double[] values=new double[9*StateIndex.get().size()];
+		Checkpoint.load(file.getPath()).copyTo(Checkpoint.Kind.Q_VALUES, values);
+		return values;
+	}
+	
+	@Test
+	public void testSeededAgent() throws IOException {
+		SplittableRandom caller=new SplittableRandom(7);
+		RandomSource.use(caller);
+		QLearningAgent agent=new QLearningAgent(new TTTEnvironment(), 0.1, 100, 0.9);
+		agent.setRandom(new SplittableRandom(1));
+		agent.train();
+		assertSame(caller, RandomSource.current());
+		
+		assertArrayEquals(trainSeeded(42), trainSeeded(42), 0);
+	}
+	
+	/**
+	 * An interrupted run throws, keeps the interrupt flag, and saves no checkpoint claiming its episodes.
+	 */
+	static void interrupted(int parallelism) throws IOException {
+		File file=File.createTempFile("interrupted", ".ckpt");
+		file.delete();
+		file.deleteOnExit();
+		QLearningAgent agent=new QLearningAgent(new TTTEnvironment(), 0.1, 100000, 0.9);
+		agent.setParallelism(parallelism);
+		agent.setCheckpointing(file.getPath(), 10);
+		
+		Thread.currentThread().interrupt();
+		try {
+			agent.train();
+			fail("Training was not cancelled");
+		} catch (CancellationException e) {
+			assertTrue(Thread.interrupted());
+		}
+		assertFalse(file.exists());
+	}
+	
+	@Test
+	public void testInterrupted() throws IOException {
+		interrupted(1);
+	}
+	
+	@Test
+	public void testInterruptedInParallel() throws IOException {
+		interrupted(4);
+	}
 
 }
@@ -0,0 +1,54 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import ticTacToe.Game;
+import ticTacToe.Move;
+import ticTacToe.QTable;
+
+public class TestQTable {
+	
+	@Test
+	public void testMapView() {
+		QTable table=new QTable();
+		Map<Game, Map<Move, Double>> map=table.asMap();
+		Game g=new Game();
+		assertTrue(map.containsKey(g));
+		assertEquals(9, map.get(g).size());
+		assertEquals(0, map.get(g).get(Move.of('X', 4)), 0);
+		
+		int entries=0;
+		for (Map.Entry<Game, Map<Move, Double>> e: map.entrySet()) {
+			assertEquals(e.getKey().canonical(), e.getKey());
+			assertEquals(e.getKey().getPossibleMoves().size(), e.getValue().size());
+			entries++;
+		}
+		assertEquals(map.size(), entries);
+		
+		// the view sees later updates
+		table.addQValue(g, Move.of('X', 4), -2.0);
+		assertEquals(-2.0, map.get(g).get(Move.of('X', 4)), 0);
+	}
+	
+	@Test
+	public void testMapViewIsReadOnly() {
+		QTable table=new QTable();
+		Game g=new Game();
+		try {
+			table.asMap().get(g).put(Move.of('X', 4), 1.0);
+			fail("Changed a read-only view");
+		} catch (UnsupportedOperationException e) {
+		}
+		try {
+			table.asMap().remove(g);
+			fail("Changed a read-only view");
+		} catch (UnsupportedOperationException e) {
+		}
+		assertEquals(0, table.getQValue(g, Move.of('X', 4)), 0);
+	}
+
+}
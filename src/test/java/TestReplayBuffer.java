@@ -0,0 +1,128 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import ticTacToe.ReplayBuffer;
+
+public class TestReplayBuffer {
+
+	/**
+	 * Adds record {@code n}, whose fields are all derived from {@code n}.
+	 */
+	static void add(ReplayBuffer buffer, int n)
+	{
+		buffer.add(n, n%9, n/2.0, n+1, n%2==0);
+	}
+
+	static void assertRecord(ReplayBuffer buffer, int record, int n)
+	{
+		assertEquals(n, buffer.state(record));
+		assertEquals(n%9, buffer.cell(record));
+		assertEquals(n/2.0, buffer.reward(record), 0);
+		assertEquals(n+1, buffer.next(record));
+		assertEquals(n%2==0, buffer.isTerminal(record));
+	}
+
+	@Test
+	public void testCapacity() {
+		ReplayBuffer buffer=new ReplayBuffer(5);
+		assertEquals(5, buffer.capacity());
+		assertEquals(0, buffer.size());
+		for (int n=0;n<12;n++) {
+			add(buffer, n);
+			assertEquals(Math.min(n+1, 5), buffer.size());
+			assertEquals(5, buffer.capacity());
+		}
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testNoCapacity() {
+		new ReplayBuffer(0);
+	}
+
+	/**
+	 * Once the buffer is full, every record overwrites the oldest one, going round the buffer.
+	 */
+	@Test
+	public void testWrapAround() {
+		ReplayBuffer buffer=new ReplayBuffer(4);
+		for (int n=0;n<4;n++)
+			add(buffer, n);
+		for (int record=0;record<4;record++)
+			assertRecord(buffer, record, record);
+
+		add(buffer, 4);
+		add(buffer, 5);
+		assertRecord(buffer, 0, 4);
+		assertRecord(buffer, 1, 5);
+		assertRecord(buffer, 2, 2);
+		assertRecord(buffer, 3, 3);
+
+		for (int n=6;n<11;n++)
+			add(buffer, n);
+		// records 0 to 10 went into slots 0,1,2,3,0,1,2,3,0,1,2
+		assertRecord(buffer, 0, 8);
+		assertRecord(buffer, 1, 9);
+		assertRecord(buffer, 2, 10);
+		assertRecord(buffer, 3, 7);
+		assertEquals(4, buffer.size());
+	}
+
+	@Test
+	public void testCapacityOfOne() {
+		ReplayBuffer buffer=new ReplayBuffer(1);
+		for (int n=0;n<3;n++) {
+			add(buffer, n);
+			assertEquals(1, buffer.size());
+			assertRecord(buffer, 0, n);
+		}
+	}
+
+	/**
+	 * Samples are sorted records of the buffer, only those added so far until it is full, and all of them show up.
+	 */
+	@Test
+	public void testSampleBounds() {
+		SplittableRandom random=new SplittableRandom(1);
+		ReplayBuffer buffer=new ReplayBuffer(8);
+		int[] batch=new int[16];
+		for (int n=0;n<20;n++) {
+			add(buffer, n);
+			boolean[] drawn=new boolean[buffer.capacity()];
+			for (int i=0;i<100;i++) {
+				buffer.sample(batch, random);
+				for (int b=0;b<batch.length;b++) {
+					assertTrue(batch[b]>=0 && batch[b]<buffer.size());
+					if (b>0)
+						assertTrue(batch[b]>=batch[b-1]);
+					drawn[batch[b]]=true;
+				}
+			}
+			for (int record=0;record<buffer.capacity();record++)
+				assertEquals(record<buffer.size(), drawn[record]);
+		}
+	}
+
+	@Test
+	public void testSampleIsSeeded() {
+		ReplayBuffer buffer=new ReplayBuffer(10);
+		for (int n=0;n<10;n++)
+			add(buffer, n);
+
+		int[] a=new int[32];
+		int[] b=new int[32];
+		buffer.sample(a, new SplittableRandom(3));
+		buffer.sample(b, new SplittableRandom(3));
+		for (int i=0;i<a.length;i++)
+			assertEquals(a[i], b[i]);
+	}
+
+	@Test(expected=IllegalStateException.class)
+	public void testSampleEmpty() {
+		new ReplayBuffer(4).sample(new int[1], new SplittableRandom(1));
+	}
+
+}
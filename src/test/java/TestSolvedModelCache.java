@@ -0,0 +1,150 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import ticTacToe.Checkpoint;
+import ticTacToe.Game;
+import ticTacToe.Move;
+import ticTacToe.Policy;
+import ticTacToe.SolvedModelCache;
+import ticTacToe.SolverParameters;
+import ticTacToe.StateIndex;
+import ticTacToe.ValueIterationAgent;
+
+public class TestSolvedModelCache {
+	
+	static SolverParameters parameters(double discount)
+	{
+		return new SolverParameters("TestSolver", discount, 10, -50, -1, 0);
+	}
+	
+	/**
+	 * 
+	 * @return a model of {@code parameters} whose values are all {@code value}, counting the models made in 
+	 * {@code solved}
+	 */
+	static SolvedModelCache.Model get(SolvedModelCache cache, SolverParameters parameters, double value, AtomicInteger solved)
+	{
+		return cache.get(parameters, () -> {
+			solved.incrementAndGet();
+			double[] values=new double[StateIndex.get().size()];
+			Arrays.fill(values, value);
+			return new SolvedModelCache.Model(parameters, new Policy(), 0, 0, values);
+		});
+	}
+	
+	@Test
+	public void testLeastRecentlyUsedEviction() {
+		SolvedModelCache cache=new SolvedModelCache(2);
+		AtomicInteger solved=new AtomicInteger();
+		SolverParameters a=parameters(0.1), b=parameters(0.2), c=parameters(0.3);
+		
+		SolvedModelCache.Model first=get(cache, a, 1, solved);   // miss
+		get(cache, b, 2, solved);                                // miss
+		assertSame(first, get(cache, a, 1, solved));             // hit: b is now the least recently used
+		get(cache, c, 3, solved);                                // miss, evicts b
+		assertEquals(2, cache.size());
+		assertSame(first, get(cache, a, 1, solved));             // hit
+		get(cache, b, 2, solved);                                // miss, evicts c
+		get(cache, c, 3, solved);                                // miss, evicts a
+		
+		assertEquals(5, solved.get());
+		assertEquals(2, cache.getHits());
+		assertEquals(5, cache.getMisses());
+		assertEquals(3, cache.getEvictions());
+		assertEquals(2, cache.size());
+	}
+	
+	@Test
+	public void testFailedSolveNotCached() {
+		SolvedModelCache cache=new SolvedModelCache(2);
+		try {
+			cache.get(parameters(0.5), () -> { throw new IllegalStateException("no solution"); });
+			fail("expected the solver's exception");
+		}
+		catch(IllegalStateException e)
+		{
+			assertEquals("no solution", e.getMessage());
+		}
+		assertEquals(0, cache.size());
+		
+		AtomicInteger solved=new AtomicInteger();
+		get(cache, parameters(0.5), 1, solved);
+		assertEquals(1, solved.get());
+	}
+	
+	@Test
+	public void testValuesAreCopies() {
+		SolvedModelCache cache=new SolvedModelCache(1);
+		SolvedModelCache.Model model=get(cache, parameters(0.1), 7, new AtomicInteger());
+		
+		double[] values=new double[StateIndex.get().size()];
+		model.getValues().copyTo(Checkpoint.Kind.STATE_VALUES, values);
+		values[0]=-1;
+		model.getValues().copyTo(Checkpoint.Kind.STATE_VALUES, values);
+		assertEquals(7, values[0], 0);
+	}
+	
+	/**
+	 * Changing the values of an agent does not change those of agents made later with the same parameters.
+	 */
+	@Test
+	public void testAgentsDoNotShareValues() throws IOException {
+		Game g=new Game();
+		long hits=SolvedModelCache.shared().getHits();
+		ValueIterationAgent first=new ValueIterationAgent(0.77);
+		double value=first.getValue(g);
+		assertTrue(value != 0);
+		
+		File zeros=File.createTempFile("zeros", ".ckpt");
+		try {
+			Checkpoint.save(zeros.getPath(), Checkpoint.Kind.STATE_VALUES, first.getParameters(), 0, 0, 
+					new double[StateIndex.get().size()]);
+			first.restoreCheckpoint(zeros.getPath());
+		}
+		finally {
+			zeros.delete();
+		}
+		assertEquals(0, first.getValue(g), 0);
+		
+		ValueIterationAgent second=new ValueIterationAgent(0.77);
+		assertEquals(hits+1, SolvedModelCache.shared().getHits());
+		assertEquals(value, second.getValue(g), 0);
+	}
+	
+	/**
+	 * Agents with the same parameters share their (cached) policy, which cannot be changed.
+	 */
+	@Test
+	public void testAgentsCannotChangeSharedPolicy() throws ReflectiveOperationException {
+		ValueIterationAgent first=new ValueIterationAgent(0.66);
+		ValueIterationAgent second=new ValueIterationAgent(0.66);
+		assertSame(first.getPolicy(), second.getPolicy());
+		
+		Game g=new Game();
+		Move move=second.getMove(g);
+		Move other=Move.of('X', (move.getCell()+1)%9);
+		Field map=Policy.class.getDeclaredField("policy"); // package-private
+		map.setAccessible(true);
+		@SuppressWarnings("unchecked")
+		Map<Game, Move> moves=(Map<Game, Move>) map.get(first.getPolicy());
+		try {
+			moves.put(g, other);
+			fail("Changed a shared policy");
+		} catch (UnsupportedOperationException e) {
+		}
+		assertEquals(move, first.getMove(g));
+		assertEquals(move, second.getMove(g));
+	}
+
+}
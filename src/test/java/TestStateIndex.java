@@ -0,0 +1,81 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import ticTacToe.Game;
+import ticTacToe.StateIndex;
+
+public class TestStateIndex {
+
+	/**
+	 * The number of valid games: boards where X has as many pieces as O, or one more, with the turn of the side
+	 * that has fewer pieces, or of either side if they have as many.
+	 */
+	static final int VALID_GAMES=12092;
+
+	@Test
+	public void testSize() {
+		int valid=0;
+		for (int hash=0;hash<3*19683;hash++) {
+			Game g=Game.inverseHash(hash);
+			if (g!=null && g.isValid())
+				valid++;
+		}
+		assertEquals(VALID_GAMES, valid);
+		assertEquals(VALID_GAMES, StateIndex.get().size());
+	}
+
+	@Test
+	public void testShared() {
+		assertSame(StateIndex.get(), StateIndex.get());
+	}
+
+	@Test
+	public void testRoundTrips() {
+		StateIndex index=StateIndex.get();
+		int previous=-1;
+		for (int id=0;id<index.size();id++) {
+			Game g=index.game(id);
+			assertTrue(g.isValid());
+			assertEquals(id, index.id(g));
+			assertEquals(g.hashCode(), index.hash(id));
+			assertEquals(id, index.idOfHash(index.hash(id)));
+			assertEquals(id, index.id(g.clone()));
+			assertEquals(id, index.id(Game.inverseHash(index.hash(id))));
+
+			// ids are dense, in increasing order of hash code
+			assertTrue(index.hash(id)>previous);
+			previous=index.hash(id);
+		}
+	}
+
+	@Test
+	public void testInvalidGames() {
+		StateIndex index=StateIndex.get();
+		int invalid=0;
+		for (int hash=0;hash<3*19683;hash++) {
+			Game g=Game.inverseHash(hash);
+			if (g==null || !g.isValid()) {
+				assertEquals(-1, index.idOfHash(hash));
+				if (g!=null)
+					assertEquals(-1, index.id(g));
+				invalid++;
+			}
+		}
+		assertEquals(3*19683-VALID_GAMES, invalid);
+	}
+
+	@Test
+	public void testGeneratedGames() {
+		StateIndex index=StateIndex.get();
+		for (char turn: new char[] {'X', 'O'})
+			for (Game g: Game.generateAllValidGames(turn)) {
+				int id=index.id(g);
+				assertTrue(id>=0);
+				assertEquals(index.game(id).getState(), g.getState());
+			}
+	}
+
+}
@@ -0,0 +1,139 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import ticTacToe.Game;
+import ticTacToe.IllegalMoveException;
+import ticTacToe.Move;
+import ticTacToe.StateIndex;
+import ticTacToe.Symmetry;
+
+public class TestSymmetry {
+
+	static char[][] rotate(char[][] b)
+	{
+		char[][] r=new char[3][3];
+		for (int i=0;i<3;i++)
+			for (int j=0;j<3;j++)
+				r[j][2-i]=b[i][j];
+		return r;
+	}
+
+	static char[][] transpose(char[][] b)
+	{
+		char[][] r=new char[3][3];
+		for (int i=0;i<3;i++)
+			for (int j=0;j<3;j++)
+				r[j][i]=b[i][j];
+		return r;
+	}
+
+	/**
+	 *
+	 * @return the 8 boards symmetric to {@code board}, computed by rotating it and its transpose
+	 */
+	static List<char[][]> directTransforms(char[][] board)
+	{
+		List<char[][]> boards=new ArrayList<char[][]>();
+		for (char[][] b: new char[][][] {board, transpose(board)})
+			for (int k=0;k<4;k++) {
+				boards.add(b);
+				b=rotate(b);
+			}
+		return boards;
+	}
+
+	static Set<String> asStrings(List<char[][]> boards)
+	{
+		Set<String> strings=new HashSet<String>();
+		for (char[][] b: boards)
+			strings.add(Arrays.deepToString(b));
+		return strings;
+	}
+
+	@Test
+	public void testPermutations() {
+		Set<String> permutations=new HashSet<String>();
+		for (int t=0;t<Symmetry.COUNT;t++) {
+			int[] perm=new int[9];
+			Set<Integer> cells=new HashSet<Integer>();
+			for (int c=0;c<9;c++) {
+				perm[c]=Symmetry.cell(t, c);
+				cells.add(perm[c]);
+				assertEquals(c, Symmetry.cell(Symmetry.inverse(t), Symmetry.cell(t, c)));
+			}
+			assertEquals(9, cells.size());
+			assertEquals(4, Symmetry.cell(t, 4)); // the centre stays
+			permutations.add(Arrays.toString(perm));
+		}
+		assertEquals(Symmetry.COUNT, permutations.size());
+		for (int c=0;c<9;c++)
+			assertEquals(c, Symmetry.cell(Symmetry.IDENTITY, c));
+	}
+
+	/**
+	 * The transforms of every game are the 8 symmetric boards, and all of them have the same canonical game: the one
+	 * with the smallest hash code.
+	 */
+	@Test
+	public void testCanonicalOfAllTransforms() {
+		StateIndex index=StateIndex.get();
+		for (int id=0;id<index.size();id++) {
+			Game g=index.game(id);
+			char turn=(g.hashCode()%3==1) ? 'X' : 'O';
+			List<char[][]> direct=directTransforms(g.getBoard());
+
+			List<char[][]> transformed=new ArrayList<char[][]>();
+			int smallest=Integer.MAX_VALUE;
+			for (char[][] b: direct)
+				smallest=Math.min(smallest, TestGame.directHash(b, turn));
+			Game canonical=g.canonical();
+			assertEquals(g.toString(), smallest, canonical.hashCode());
+			assertEquals(smallest, g.canonicalHash());
+			assertEquals(index.canonicalId(id), index.id(canonical));
+			assertEquals(canonical, g.transform(g.symmetry()));
+
+			for (int t=0;t<Symmetry.COUNT;t++) {
+				Game s=g.transform(t);
+				transformed.add(s.getBoard());
+				assertEquals(g.hashCode()%3, s.hashCode()%3);
+				for (int c=0;c<9;c++)
+					assertEquals(g.getCell(c/3, c%3), s.getCell(Symmetry.cell(t, c)/3, Symmetry.cell(t, c)%3));
+
+				assertEquals(g.toString()+t, canonical, s.canonical());
+				assertEquals(smallest, s.canonicalHash());
+				assertEquals(g.getState(), s.getState());
+			}
+			assertEquals(asStrings(direct), asStrings(transformed));
+		}
+	}
+
+	/**
+	 * A move stored for the canonical game, mapped back onto the game, is legal there and leads to a game symmetric to
+	 * the one it leads to from the canonical game.
+	 */
+	@Test
+	public void testMovesOfCanonicalGames() throws IllegalMoveException {
+		for (char turn: new char[] {'X', 'O'})
+			for (Game g: Game.generateAllValidGames(turn)) {
+				if (g.isTerminal())
+					continue;
+
+				Game canonical=g.canonical();
+				for (Move stored: canonical.getPossibleMoves()) {
+					Move m=stored.transform(Symmetry.inverse(g.symmetry()));
+					assertTrue(g.isLegal(m));
+					assertEquals(canonical.simulateMove(stored).canonical(), g.simulateMove(m).canonical());
+					assertEquals(stored, m.transform(g.symmetry()));
+				}
+			}
+	}
+
+}
@@ -0,0 +1,135 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import ticTacToe.Game;
+import ticTacToe.IllegalMoveException;
+import ticTacToe.Move;
+import ticTacToe.Outcome;
+import ticTacToe.RandomSource;
+import ticTacToe.TTTEnvironment;
+
+public class TestTTTEnvironment {
+
+	static final int STEPS=2000;
+
+	/**
+	 *
+	 * @return everything in {@code outcome}, as it is now
+	 */
+	static String snapshot(Outcome outcome)
+	{
+		return outcome+"\n"+outcome.s.hashCode()+" "+outcome.sPrime.hashCode()+" "+outcome.sId+" "+outcome.sPrimeId;
+	}
+
+	/**
+	 * Plays {@link #STEPS} random moves of X against the random opponent seeded with {@code seed}, and checks that
+	 * every outcome is intact until the next move, whatever else is done with the environment in between.
+	 *
+	 * @return the snapshots of the outcomes
+	 */
+	static List<String> play(TTTEnvironment env, long seed) throws IllegalMoveException
+	{
+		List<String> snapshots=new ArrayList<String>();
+		RandomSource.seed(seed);
+		SplittableRandom xMoves=new SplittableRandom(seed+1);
+		for (int step=0;step<STEPS;step++)
+		{
+			Game before=env.getCurrentGameState().clone();
+			int empty=before.emptyCells();
+			int cell=Game.nthCell(empty, xMoves.nextInt(Integer.bitCount(empty)));
+			Outcome outcome=env.executeMove(Move.of('X', cell));
+			String snapshot=snapshot(outcome);
+			snapshots.add(snapshot);
+
+			assertEquals(before, outcome.s);
+			assertEquals(before.toString(), outcome.s.toString());
+			assertNotSame(env.getCurrentGameState(), outcome.s);
+			assertEquals(env.getCurrentGameState(), outcome.sPrime);
+
+			// what a learner does with the outcome before its next move
+			env.getPossibleMoves();
+			env.isTerminal();
+			env.getCurrentGameState().getPossibleMoves();
+			outcome.sPrime.getPossibleMoves();
+			assertEquals("outcome of step "+step, snapshot, snapshot(outcome));
+
+			if (env.isTerminal())
+			{
+				int sId=outcome.sId;
+				int sPrimeId=outcome.sPrimeId;
+				env.reset();
+				// the ids are all a learner may keep using after a reset
+				assertEquals(sId, outcome.sId);
+				assertEquals(sPrimeId, outcome.sPrimeId);
+			}
+		}
+		return snapshots;
+	}
+
+	/**
+	 * Reused outcomes hold the same transitions as new ones, each until the next move.
+	 */
+	@Test
+	public void testReusedOutcomes() throws IllegalMoveException {
+		List<String> fresh=play(new TTTEnvironment(), 5);
+
+		TTTEnvironment env=new TTTEnvironment();
+		env.setReuseOutcomes(true);
+		assertEquals(fresh, play(env, 5));
+	}
+
+	@Test
+	public void testOutcomeIsReused() throws IllegalMoveException {
+		RandomSource.seed(3);
+		TTTEnvironment env=new TTTEnvironment();
+		env.setReuseOutcomes(true);
+		Outcome first=env.executeMove(Move.of('X', 4));
+		Game source=first.s;
+		Game current=env.getCurrentGameState();
+		assertSame(current, first.sPrime);
+
+		Move m=env.getCurrentGameState().getPossibleMoves().get(0);
+		Outcome second=env.executeMove(m);
+		assertSame(first, second);
+		assertSame(source, second.s);
+		assertSame(m, second.move);
+
+		env.reset();
+		assertSame(current, env.getCurrentGameState());
+		assertEquals(new Game(), env.getCurrentGameState());
+	}
+
+	/**
+	 * Once reuse is turned off, moves return new outcomes, and the last reused one is left as it was, but for its
+	 * target state, which is the environment's game in either mode.
+	 */
+	@Test
+	public void testReuseTurnedOff() throws IllegalMoveException {
+		RandomSource.seed(3);
+		TTTEnvironment env=new TTTEnvironment();
+		env.setReuseOutcomes(true);
+		Outcome reused=env.executeMove(Move.of('X', 4));
+		Game source=reused.s.clone();
+		Move move=reused.move;
+		double reward=reused.localReward;
+		int sId=reused.sId;
+		int sPrimeId=reused.sPrimeId;
+
+		env.setReuseOutcomes(false);
+		Outcome fresh=env.executeMove(env.getCurrentGameState().getPossibleMoves().get(0));
+		assertNotSame(reused, fresh);
+		assertEquals(source, reused.s);
+		assertSame(move, reused.move);
+		assertEquals(reward, reused.localReward, 0);
+		assertEquals(sId, reused.sId);
+		assertEquals(sPrimeId, reused.sPrimeId);
+	}
+
+}